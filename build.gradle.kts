@@ -21,6 +21,10 @@ dependencies {
     implementation("org.bstats:bstats-bukkit:3.1.0")
     implementation("redis.clients:jedis:7.2.1")
     implementation("com.google.code.gson:gson:2.13.2")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 java {
@@ -47,6 +51,10 @@ tasks {
         options.release.set(21)
     }
 
+    test {
+        useJUnitPlatform()
+    }
+
     javadoc {
         options.encoding = Charsets.UTF_8.name()
     }
@@ -154,19 +154,24 @@ public class MultiInvSyncPlugin extends JavaPlugin {
         
         if (syncManager != null) {
             syncManager.refreshConfigCache();
+            syncManager.refreshScope();
         }
         
         if (economySyncManager != null) {
             economySyncManager.shutdown();
         }
-        if (crossServerSyncManager != null) {
-            crossServerSyncManager.shutdown();
+        CrossServerSyncManager previous = crossServerSyncManager;
+        if (previous != null) {
+            previous.shutdown();
         }
         
         economySyncManager = new EconomySyncManager(this);
         economySyncManager.initialize();
         teamManager.initialize();
         crossServerSyncManager = new CrossServerSyncManager(this);
+        if (previous != null) {
+            crossServerSyncManager.carryOver(previous);
+        }
         crossServerSyncManager.initialize();
         getLogger().info("Plugin reloaded successfully");
     }
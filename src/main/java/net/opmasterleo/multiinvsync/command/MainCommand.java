@@ -12,6 +12,7 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
+import redis.clients.jedis.csc.CacheStats;
 
 public class MainCommand implements CommandExecutor, TabCompleter {
     
@@ -86,6 +87,17 @@ public class MainCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "Ender Chest Sync: " + ChatColor.WHITE + 
             (plugin.getConfigManager().isSyncEnderChest() ? "Enabled" : "Disabled"));
         sender.sendMessage(ChatColor.YELLOW + "Performance: " + ChatColor.WHITE + "NMS + Netty (Always On)");
+        if (plugin.getCrossServerSyncManager() != null && plugin.getCrossServerSyncManager().isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "Redis Messaging: " + ChatColor.WHITE + 
+                plugin.getCrossServerSyncManager().getMessagingState() + 
+                " (reconnects: " + plugin.getCrossServerSyncManager().getMessagingReconnects() + ")");
+            CacheStats cacheStats = plugin.getCrossServerSyncManager().getClientCacheStats();
+            if (cacheStats != null) {
+                sender.sendMessage(ChatColor.YELLOW + "Redis Near-Cache: " + ChatColor.WHITE + 
+                    cacheStats.getHitCount() + " hits, " + cacheStats.getMissCount() + " misses, " + 
+                    cacheStats.getInvalidationCount() + " invalidations");
+            }
+        }
     }
     
     @Override
@@ -1,5 +1,10 @@
 package net.opmasterleo.multiinvsync.config;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
@@ -55,10 +60,46 @@ public class ConfigManager {
         return config.getString("economy.provider", "essentials");
     }
     
+    public boolean isEconomyLedgerEnabled() {
+        return config.getBoolean("economy.ledger.enabled", false);
+    }
+    
+    public long getEconomyLedgerFlushMillis() {
+        return Math.max(10L, config.getLong("economy.ledger.flush-ms", 100L));
+    }
+    
     public int getSyncDelayTicks() {
         return config.getInt("sync.delay-ticks", 1);
     }
     
+    public String getSyncScope() {
+        return config.getString("sync.scope.mode", "global");
+    }
+    
+    public int getSyncScopeRadius() {
+        return config.getInt("sync.scope.radius", 64);
+    }
+    
+    /**
+     * World name to world group name, from sync.scope.world-groups.
+     */
+    public Map<String, String> getSyncWorldGroups() {
+        Map<String, String> groups = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("sync.scope.world-groups");
+        if (section != null) {
+            for (String group : section.getKeys(false)) {
+                for (String world : section.getStringList(group)) {
+                    groups.put(world, group);
+                }
+            }
+        }
+        return groups;
+    }
+    
+    public int getIdleDeferSeconds() {
+        return Math.max(0, config.getInt("sync.idle-defer-seconds", 0));
+    }
+    
     public boolean isSharedDeath() {
         return config.getBoolean("death.shared-death", true);
     }
@@ -96,6 +137,10 @@ public class ConfigManager {
         return config.getBoolean("redis.enabled", false);
     }
     
+    public boolean isMemoryBackend() {
+        return "memory".equalsIgnoreCase(config.getString("redis.backend", "redis"));
+    }
+    
     public String getRedisHost() {
         return config.getString("redis.host", "localhost");
     }
@@ -117,10 +162,123 @@ public class ConfigManager {
         return config.getInt("redis.timeout", 3000);
     }
     
+    public boolean isRedisClusterEnabled() {
+        return config.getBoolean("redis.cluster.enabled", false);
+    }
+    
+    public List<String> getRedisClusterNodes() {
+        List<String> nodes = config.getStringList("redis.cluster.nodes");
+        if (nodes.isEmpty()) {
+            nodes = List.of(getRedisHost() + ":" + getRedisPort());
+        }
+        return nodes;
+    }
+    
+    public boolean isRedisSentinelEnabled() {
+        return config.getBoolean("redis.sentinel.enabled", false);
+    }
+    
+    public String getRedisSentinelMaster() {
+        return config.getString("redis.sentinel.master-name", "mymaster");
+    }
+    
+    public List<String> getRedisSentinelNodes() {
+        return config.getStringList("redis.sentinel.nodes");
+    }
+    
+    public String getRedisSentinelPassword() {
+        String password = config.getString("redis.sentinel.password", "");
+        return password.isEmpty() ? null : password;
+    }
+    
+    public boolean isRedisReplicasEnabled() {
+        return config.getBoolean("redis.replicas.enabled", false);
+    }
+    
+    public List<String> getRedisReplicaNodes() {
+        return config.getStringList("redis.replicas.nodes");
+    }
+    
+    public boolean isRedisClientCacheEnabled() {
+        return config.getBoolean("redis.client-cache.enabled", false);
+    }
+    
+    public int getRedisClientCacheSize() {
+        return Math.max(1, config.getInt("redis.client-cache.max-entries", 2000));
+    }
+    
+    public int getRedisPoolSize() {
+        return Math.max(2, config.getInt("redis.connection.pool-size", 10));
+    }
+    
+    public boolean isRedisPipelinedMode() {
+        return "pipelined".equalsIgnoreCase(config.getString("redis.connection.mode", "pool"));
+    }
+    
+    public int getRedisPipelineConnections() {
+        return Math.max(1, config.getInt("redis.connection.pipeline-connections", 2));
+    }
+    
+    public int getRedisPipelineMaxBatch() {
+        return Math.max(1, config.getInt("redis.connection.pipeline-max-batch", 256));
+    }
+    
     public boolean isRedisAllowWithoutProxy() {
         return config.getBoolean("redis.allow-without-proxy", false);
     }
     
+    public boolean isRedisInlinePayload() {
+        return config.getBoolean("redis.inline-payload.enabled", true);
+    }
+    
+    public int getRedisInlinePayloadMaxBytes() {
+        return config.getInt("redis.inline-payload.max-bytes", 16384);
+    }
+    
+    public boolean isRedisStreamsTransport() {
+        return "streams".equalsIgnoreCase(config.getString("redis.transport", "pubsub"));
+    }
+    
+    public long getRedisStreamMaxLength() {
+        return config.getLong("redis.streams.max-length", 1000L);
+    }
+    
+    public long getRedisPublishBatchMillis() {
+        return Math.max(0L, config.getLong("redis.publish-batch-ms", 0L));
+    }
+    
+    public boolean isRedisJournalEnabled() {
+        return config.getBoolean("redis.journal.enabled", false);
+    }
+    
+    public boolean isRedisHandoffEnabled() {
+        return config.getBoolean("redis.handoff.enabled", false);
+    }
+    
+    public long getRedisHandoffTimeoutTicks() {
+        return Math.max(1L, config.getLong("redis.handoff.timeout-ticks", 20L));
+    }
+    
+    public boolean isRedisPresenceSuppression() {
+        return config.getBoolean("redis.presence-suppression", false);
+    }
+    
+    public long getRedisShutdownFlushMillis() {
+        return Math.max(100L, config.getLong("redis.shutdown-flush-timeout-ms", 5000L));
+    }
+    
+    public boolean isRedisArchiveEnabled() {
+        return config.getBoolean("redis.archive.enabled", false);
+    }
+    
+    public int getRedisArchiveRetentionDays() {
+        return Math.max(1, config.getInt("redis.archive.retention-days", 90));
+    }
+    
+    public long getRedisJournalFsyncMillis() {
+        return Math.max(100L, config.getLong("redis.journal.fsync-interval-ms", 1000L));
+    }
+    
     public boolean isSyncHealth() {
         return config.getBoolean("sync.health", false);
     }
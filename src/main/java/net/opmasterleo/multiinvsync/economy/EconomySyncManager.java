@@ -73,7 +73,7 @@ public class EconomySyncManager {
             return;
         }
 
-        plugin.getScheduler().runMain(() -> {
+        runProviderWrite(() -> {
             try {
                 for (Player target : targets) {
                     if (target.getUniqueId().equals(sourceId)) {
@@ -93,6 +93,28 @@ public class EconomySyncManager {
         });
     }
 
+    /**
+     * Apply one balance to several players, e.g. a team whose shared balance changed elsewhere.
+     */
+    public void applyBalances(Collection<Player> players, double balance) {
+        if (!enabled || provider == null || !provider.isAvailable()) {
+            return;
+        }
+        runProviderWrite(() -> {
+            for (Player player : players) {
+                applyBalance(player, balance);
+            }
+        });
+    }
+
+    private void runProviderWrite(Runnable task) {
+        if (provider.supportsAsyncWrites()) {
+            plugin.getScheduler().runAsync(task);
+        } else {
+            plugin.getScheduler().runMain(task);
+        }
+    }
+
     private MoneyProvider createProvider(String providerName) {
         if (providerName == null || providerName.equalsIgnoreCase("essentials") || providerName.equalsIgnoreCase("auto")) {
             MoneyProvider essentials = new EssentialsMoneyProvider(plugin);
@@ -132,7 +154,7 @@ public class EconomySyncManager {
             return;
         }
         try {
-            Object user = event.getClass().getMethod("getUser").invoke(event);
+            Object user = essentialsProvider.getEventUser(event);
             if (user == null) {
                 return;
             }
@@ -143,14 +165,27 @@ public class EconomySyncManager {
             if (syncingMoney.contains(player.getUniqueId())) {
                 return; // ignore cascades from our own writes
             }
-            syncBalanceFromSource(player);
+            double balance = provider.getBalance(player);
+            syncBalance(player, balance);
+            if (plugin.getCrossServerSyncManager() != null) {
+                plugin.getCrossServerSyncManager().handleLocalBalanceChange(player, balance);
+            }
         } catch (NoSuchMethodException ignored) {
             plugin.getLogger().warning("EssentialsX balance event missing getUser(); money sync skipped");
-        } catch (Exception e) {
+        } catch (Throwable e) {
             plugin.getLogger().warning("Failed to handle EssentialsX balance event: " + e.getMessage());
         }
     }
     
+    /**
+     * Drop per-session provider state for a player who left.
+     */
+    public void handlePlayerQuit(Player player) {
+        if (provider != null) {
+            provider.forgetPlayer(player.getUniqueId());
+        }
+    }
+    
     /**
      * Get player's balance (for Redis integration).
      */
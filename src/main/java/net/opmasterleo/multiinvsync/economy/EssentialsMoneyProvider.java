@@ -4,17 +4,31 @@ import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.math.BigDecimal;
-import java.lang.reflect.Method;
-
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes balances through EssentialsX without a compile-time dependency.
+ * Every Essentials method is resolved once into a {@link MethodHandle} adapted to erased
+ * types so calls use invokeExact, and each online player's User is looked up only once.
+ */
 public class EssentialsMoneyProvider implements MoneyProvider {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
     private final MultiInvSyncPlugin plugin;
+    private final Map<UUID, CachedUser> users = new ConcurrentHashMap<>();
     private Object essentials;
-    private Method getUser;
-    private Method getMoney;
-    private Method setMoney;
-    private Method getBase;
-    private Method getPlayerFromUser;
+    private MethodHandle getUser;
+    private MethodHandle getMoney;
+    private MethodHandle setMoney;
+    private MethodHandle getBase;
+    private MethodHandle getPlayerFromUser;
+    private volatile MethodHandle getEventUser;
     private boolean available;
 
     public EssentialsMoneyProvider(MultiInvSyncPlugin plugin) {
@@ -32,22 +46,15 @@ public class EssentialsMoneyProvider implements MoneyProvider {
             essentials = ess;
             Class<?> essClass = Class.forName("com.earth2me.essentials.Essentials");
             Class<?> userClass = Class.forName("com.earth2me.essentials.User");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
 
-            getUser = essClass.getMethod("getUser", Player.class);
-            getMoney = userClass.getMethod("getMoney");
-            setMoney = userClass.getMethod("setMoney", BigDecimal.class);
-
-            try {
-                getBase = userClass.getMethod("getBase");
-            } catch (NoSuchMethodException ignored) {
-                getBase = null;
-            }
-
-            try {
-                getPlayerFromUser = userClass.getMethod("getPlayer");
-            } catch (NoSuchMethodException ignored) {
-                getPlayerFromUser = null;
-            }
+            getUser = lookup.unreflect(essClass.getMethod("getUser", Player.class))
+                .asType(MethodType.methodType(Object.class, Object.class, Player.class));
+            getMoney = lookup.unreflect(userClass.getMethod("getMoney")).asType(GETTER);
+            setMoney = lookup.unreflect(userClass.getMethod("setMoney", BigDecimal.class))
+                .asType(MethodType.methodType(void.class, Object.class, BigDecimal.class));
+            getBase = findGetter(lookup, userClass, "getBase");
+            getPlayerFromUser = findGetter(lookup, userClass, "getPlayer");
 
             available = true;
         } catch (Exception e) {
@@ -56,6 +63,14 @@ public class EssentialsMoneyProvider implements MoneyProvider {
         }
     }
 
+    private static MethodHandle findGetter(MethodHandles.Lookup lookup, Class<?> owner, String name) {
+        try {
+            return lookup.unreflect(owner.getMethod(name)).asType(GETTER);
+        } catch (ReflectiveOperationException ignored) {
+            return null;
+        }
+    }
+
     @Override
     public String getName() {
         return "EssentialsX";
@@ -72,18 +87,18 @@ public class EssentialsMoneyProvider implements MoneyProvider {
             return 0.0D;
         }
         try {
-            Object user = getUser.invoke(essentials, player);
+            Object user = user(player);
             if (user == null) {
                 return 0.0D;
             }
-            Object money = getMoney.invoke(user);
+            Object money = (Object) getMoney.invokeExact(user);
             if (money instanceof BigDecimal bd) {
                 return bd.doubleValue();
             }
             if (money instanceof Number number) {
                 return number.doubleValue();
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             plugin.getLogger().warning("Failed to get balance from EssentialsX: " + e.getMessage());
         }
         return 0.0D;
@@ -95,16 +110,30 @@ public class EssentialsMoneyProvider implements MoneyProvider {
             return;
         }
         try {
-            Object user = getUser.invoke(essentials, player);
+            Object user = user(player);
             if (user == null) {
                 return;
             }
-            setMoney.invoke(user, BigDecimal.valueOf(amount));
-        } catch (Exception e) {
+            setMoney.invokeExact(user, BigDecimal.valueOf(amount));
+        } catch (Throwable e) {
             plugin.getLogger().warning("Failed to set balance in EssentialsX: " + e.getMessage());
         }
     }
 
+    /**
+     * Essentials users are thread-safe and the balance event it fires declares itself async
+     * when called off the main thread.
+     */
+    @Override
+    public boolean supportsAsyncWrites() {
+        return true;
+    }
+
+    @Override
+    public void forgetPlayer(UUID playerId) {
+        users.remove(playerId);
+    }
+
     public Class<?> getBalanceUpdateEventClass() {
         try {
             return Class.forName("net.ess3.api.events.UserBalanceUpdateEvent");
@@ -113,24 +142,36 @@ public class EssentialsMoneyProvider implements MoneyProvider {
         }
     }
 
+    /**
+     * The User carried by a balance event. The accessor is resolved on the first event.
+     */
+    public Object getEventUser(Object event) throws Throwable {
+        MethodHandle handle = getEventUser;
+        if (handle == null) {
+            handle = MethodHandles.publicLookup().unreflect(event.getClass().getMethod("getUser")).asType(GETTER);
+            getEventUser = handle;
+        }
+        return (Object) handle.invokeExact(event);
+    }
+
     public Player resolvePlayerFromUser(Object user) {
         try {
             if (user == null) {
                 return null;
             }
             if (getPlayerFromUser != null) {
-                Object base = getPlayerFromUser.invoke(user);
+                Object base = (Object) getPlayerFromUser.invokeExact(user);
                 if (base instanceof Player player) {
                     return player;
                 }
             }
             if (getBase != null) {
-                Object base = getBase.invoke(user);
+                Object base = (Object) getBase.invokeExact(user);
                 if (base instanceof Player player) {
                     return player;
                 }
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             plugin.getLogger().warning("Failed to resolve player from Essentials user: " + e.getMessage());
         }
         return null;
@@ -139,5 +180,32 @@ public class EssentialsMoneyProvider implements MoneyProvider {
     @Override
     public void shutdown() {
         available = false;
+        users.clear();
+    }
+
+    /**
+     * Cached User for the player's current session. A new Player instance means a new
+     * login, so the entry is refreshed rather than trusted.
+     */
+    private Object user(Player player) throws Throwable {
+        CachedUser cached = users.get(player.getUniqueId());
+        if (cached != null && cached.player == player) {
+            return cached.user;
+        }
+        Object user = (Object) getUser.invokeExact(essentials, player);
+        if (user != null) {
+            users.put(player.getUniqueId(), new CachedUser(player, user));
+        }
+        return user;
+    }
+
+    private static final class CachedUser {
+        final Player player;
+        final Object user;
+
+        CachedUser(Player player, Object user) {
+            this.player = player;
+            this.user = user;
+        }
     }
 }
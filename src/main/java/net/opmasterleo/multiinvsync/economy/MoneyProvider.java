@@ -1,5 +1,7 @@
 package net.opmasterleo.multiinvsync.economy;
 
+import java.util.UUID;
+
 import org.bukkit.entity.Player;
 
 public interface MoneyProvider {
@@ -7,5 +9,11 @@ public interface MoneyProvider {
     boolean isAvailable();
     double getBalance(Player player);
     void setBalance(Player player, double amount);
+    default void forgetPlayer(UUID playerId) {
+    }
+    /** Whether setBalance may be called off the main thread. */
+    default boolean supportsAsyncWrites() {
+        return false;
+    }
     void shutdown();
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.player.PlayerExpChangeEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
@@ -23,6 +24,17 @@ public class PlayerListener implements Listener {
         this.plugin = plugin;
     }
     
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        // Already off the main thread, so the Redis round trip here costs no tick time
+        if (plugin.getCrossServerSyncManager() != null && plugin.getCrossServerSyncManager().isEnabled()) {
+            plugin.getCrossServerSyncManager().prefetch(event.getUniqueId());
+        }
+    }
+    
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
@@ -71,6 +83,9 @@ public class PlayerListener implements Listener {
         }
         
         plugin.getSyncManager().uninjectPlayer(player);
+        if (plugin.getEconomySyncManager() != null) {
+            plugin.getEconomySyncManager().handlePlayerQuit(player);
+        }
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
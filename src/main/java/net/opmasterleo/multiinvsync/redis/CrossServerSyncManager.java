@@ -1,9 +1,19 @@
 package net.opmasterleo.multiinvsync.redis;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Logger;
 
 import org.bukkit.Bukkit;
@@ -15,32 +25,65 @@ import org.bukkit.inventory.PlayerInventory;
 import net.minecraft.server.level.ServerPlayer;
 import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
 import net.opmasterleo.multiinvsync.config.ConfigManager;
-import net.opmasterleo.multiinvsync.redis.RedisInventoryStorage.InventoryData;
-import net.opmasterleo.multiinvsync.redis.RedisPubSubManager.RedisMessage;
+import net.opmasterleo.multiinvsync.storage.ColdArchive;
+import net.opmasterleo.multiinvsync.storage.ConnectionState;
+import net.opmasterleo.multiinvsync.storage.InventoryCodec;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
+import net.opmasterleo.multiinvsync.storage.InventoryStore;
+import net.opmasterleo.multiinvsync.storage.JournaledInventoryStore;
+import net.opmasterleo.multiinvsync.storage.MessageBus;
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryHub;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryInventoryStore;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryMessageBus;
 import net.opmasterleo.multiinvsync.velocity.VelocityIntegration;
+import redis.clients.jedis.csc.CacheStats;
 
 /**
  * Cross-server synchronization manager.
- * Orchestrates Redis storage, Pub/Sub messaging, and Velocity integration.
+ * Orchestrates storage, messaging, and Velocity integration.
+ * Storage and messaging come from the configured backend: Redis, or an in-memory
+ * backend for single-server deployments and for running the sync logic without Redis.
  */
 public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchHandler {
     
+    private static final long PREFETCH_TTL_MILLIS = 10000L;
+    private static final String GLOBAL_ECONOMY_GROUP = "global";
+    private static final UUID GLOBAL_ECONOMY_SENDER = new UUID(0L, 0L);
+    
     private final MultiInvSyncPlugin plugin;
     private final Logger logger;
     private final ConfigManager config;
+    private final InventoryCodec codec;
     
     private RedisConnectionManager redisConnection;
-    private RedisInventoryStorage redisStorage;
-    private RedisPubSubManager pubSubManager;
+    private InventoryStore storage;
+    private JournaledInventoryStore journaledStorage;
+    private TieredInventoryStore tieredStorage;
+    private RedisEconomyLedger economyLedger;
+    private volatile TeamPresenceRegistry presence;
+    private MessageBus messageBus;
+    private boolean memoryBackend;
     private VelocityIntegration velocityIntegration;
     
     private final Set<UUID> savingNow = ConcurrentHashMap.newKeySet();
     private final Set<UUID> loadingNow = ConcurrentHashMap.newKeySet();
     private final Map<UUID, Long> lastSaveVersion = new ConcurrentHashMap<>();
+    private final Map<UUID, Double> lastSavedBalance = new ConcurrentHashMap<>();
     private final Map<UUID, Long> appliedVersion = new ConcurrentHashMap<>();
     private final Map<UUID, Long> pendingLoads = new ConcurrentHashMap<>();
     private final Map<String, Integer> teamPresence = new ConcurrentHashMap<>();
     private final Set<String> subscribedTeams = ConcurrentHashMap.newKeySet();
+    /** Economy groups of players without a team, kept after they quit until their last change is committed. */
+    private final Set<String> soloEconomyGroups = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Prefetched> prefetched = new ConcurrentHashMap<>();
+    /** Players whose join arrived before sync was enabled; everyone else online then was carried over a reload. */
+    private final Set<UUID> joinedBeforeEnable = ConcurrentHashMap.newKeySet();
+    /** Ledger balances the previous manager last knew, to carry changes made during a reload into the ledger. */
+    private Map<String, Double> carriedLedgerBalances = Map.of();
+    private final Map<UUID, Long> awaitingHandoff = new ConcurrentHashMap<>();
+    private final Map<UUID, String> handoffTargets = new ConcurrentHashMap<>();
+    private final Map<UUID, Handoff> departed = new ConcurrentHashMap<>();
     
     private volatile boolean enabled = false;
     private String serverId;
@@ -49,6 +92,7 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.config = plugin.getConfigManager();
+        this.codec = new InventoryCodec(logger);
     }
     
     /**
@@ -62,24 +106,14 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         
         logger.info("Starting cross-server synchronization...");
         
-        // Initialize Redis connection
-        redisConnection = new RedisConnectionManager(
-            logger,
-            config.getRedisHost(),
-            config.getRedisPort(),
-            config.getRedisPassword(),
-            config.getRedisDatabase(),
-            config.getRedisTimeout()
-        );
-        
-        if (!redisConnection.connect()) {
-            logger.severe("Could not connect to Redis. Cross-server sync disabled.");
+        memoryBackend = config.isMemoryBackend();
+        if (memoryBackend) {
+            storage = new MemoryInventoryStore(MemoryHub.shared(), logger);
+            logger.info("Using in-memory storage backend (data is kept until the server stops)");
+        } else if (!connectRedis()) {
             return false;
         }
         
-        // Initialize storage and pub/sub
-        redisStorage = new RedisInventoryStorage(redisConnection, logger);
-        
         // Initialize Velocity integration
         velocityIntegration = new VelocityIntegration(plugin, logger, this);
         velocityIntegration.initialize();
@@ -88,7 +122,8 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         plugin.getScheduler().runMainLater(() -> {
             serverId = velocityIntegration.getCurrentServerId();
             
-            if (!velocityIntegration.isVelocityDetected()) {
+            // The in-memory backend never leaves this JVM, so there is nothing to duplicate across servers
+            if (!memoryBackend && !velocityIntegration.isVelocityDetected()) {
                 logger.severe("========================================");
                 logger.severe("WARNING: Velocity proxy not detected!");
                 logger.severe("Without Velocity, you may experience:");
@@ -105,9 +140,30 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
                 }
             }
             
-            // Start Pub/Sub after Velocity detection
-            pubSubManager = new RedisPubSubManager(redisConnection, logger, serverId);
-            pubSubManager.start(this::handleRedisMessage);
+            if (!memoryBackend) {
+                layerStorage();
+            }
+            
+            // Start messaging after Velocity detection
+            if (memoryBackend) {
+                messageBus = new MemoryMessageBus(MemoryHub.shared(), logger, serverId);
+            } else {
+                messageBus = new RedisPubSubManager(redisConnection, logger, serverId,
+                    config.isRedisStreamsTransport(), config.getRedisStreamMaxLength(), config.getRedisTimeout(),
+                    config.getRedisPublishBatchMillis());
+            }
+            messageBus.setReconnectListener(this::resyncOnlinePlayers);
+            messageBus.start(this::handleRedisMessage);
+            
+            if (!memoryBackend && config.isSyncMoney() && config.isEconomyLedgerEnabled()) {
+                economyLedger = new RedisEconomyLedger(redisConnection, logger, serverId,
+                    config.getEconomyLedgerFlushMillis(), new LedgerListener());
+                logger.info("Economy ledger mode enabled");
+            }
+            
+            if (!memoryBackend && config.isTeamsEnabled() && config.isRedisPresenceSuppression()) {
+                presence = new TeamPresenceRegistry(redisConnection, logger, serverId);
+            }
             
             enabled = true;
             logger.info("Cross-server sync enabled (Server: " + serverId + ")");
@@ -117,55 +173,291 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
                     updateTeamSubscription(online, true);
                 }
             }
+            loadOnlinePlayers();
         }, 40L);
         
         return true;
     }
     
+    /**
+     * Put the archive and journal in front of Redis once the server ID is known,
+     * since archives are marked with the server that wrote them.
+     */
+    private void layerStorage() {
+        RedisInventoryStorage redisStorage = (RedisInventoryStorage) storage;
+        if (config.isRedisArchiveEnabled()) {
+            try {
+                ColdArchive archive = new ColdArchive(new File(plugin.getDataFolder(), "archive"), logger);
+                tieredStorage = new TieredInventoryStore(redisStorage, archive, logger, serverId,
+                    config.getRedisArchiveRetentionDays(), (playerId, archivedBy) -> {
+                        MessageBus bus = messageBus;
+                        if (bus != null) {
+                            bus.requestRehydrate(playerId, archivedBy);
+                        }
+                    });
+                storage = tieredStorage;
+            } catch (IOException e) {
+                logger.warning("Could not open inventory archive, data will expire with its Redis TTL: " + e.getMessage());
+            }
+        }
+        if (config.isRedisJournalEnabled()) {
+            try {
+                journaledStorage = new JournaledInventoryStore(storage, new File(plugin.getDataFolder(), "journal"),
+                    logger, config.getRedisJournalFsyncMillis());
+                storage = journaledStorage;
+            } catch (IOException e) {
+                logger.warning("Could not open write journal, failed Redis writes will not be retried: " + e.getMessage());
+            }
+        }
+    }
+    
+    private boolean connectRedis() {
+        redisConnection = new RedisConnectionManager(
+            logger,
+            config.getRedisHost(),
+            config.getRedisPort(),
+            config.getRedisPassword(),
+            config.getRedisDatabase(),
+            config.getRedisTimeout(),
+            config.getRedisPoolSize(),
+            config.isRedisPipelinedMode(),
+            config.getRedisPipelineConnections(),
+            config.getRedisPipelineMaxBatch()
+        );
+        if (config.isRedisClusterEnabled()) {
+            redisConnection.setClusterNodes(config.getRedisClusterNodes());
+        }
+        if (config.isRedisSentinelEnabled()) {
+            redisConnection.setSentinel(config.getRedisSentinelMaster(), config.getRedisSentinelNodes(),
+                config.getRedisSentinelPassword());
+        }
+        if (config.isRedisReplicasEnabled()) {
+            redisConnection.setReplicaNodes(config.getRedisReplicaNodes());
+        }
+        if (config.isRedisClientCacheEnabled()) {
+            redisConnection.enableClientSideCache(config.getRedisClientCacheSize(), RedisInventoryStorage::isCacheableKey);
+        }
+        
+        if (!redisConnection.connect()) {
+            logger.severe("Could not connect to Redis. Cross-server sync disabled.");
+            return false;
+        }
+        
+        storage = new RedisInventoryStorage(redisConnection, logger);
+        return true;
+    }
+    
+    /**
+     * Take over from the manager a reload replaces, after it was shut down.
+     */
+    public void carryOver(CrossServerSyncManager previous) {
+        carriedLedgerBalances = previous.carriedLedgerBalances;
+    }
+    
+    /**
+     * Register everyone already online with a single bulk read instead of one load per player.
+     * Players who joined before sync was enabled get their stored snapshot and balance.
+     * Players carried over a reload already hold their latest state, which the previous manager
+     * flushed and may have changed since; it is saved again instead of rolled back.
+     */
+    private void loadOnlinePlayers() {
+        List<Player> online = new ArrayList<>(plugin.getServer().getOnlinePlayers());
+        if (online.isEmpty()) {
+            return;
+        }
+        List<UUID> playerIds = new ArrayList<>(online.size());
+        for (Player player : online) {
+            playerIds.add(player.getUniqueId());
+        }
+        boolean withEconomy = config.isSyncMoney() && economyLedger == null;
+        plugin.getScheduler().runAsync(() -> {
+            Map<UUID, InventoryStore.Loaded> loaded = storage.loadAll(playerIds, serverId, withEconomy);
+            Map<String, Double> ledgerBalances = new ConcurrentHashMap<>();
+            for (Player player : online) {
+                InventoryStore.Loaded entry = loaded.get(player.getUniqueId());
+                boolean carried = !joinedBeforeEnable.remove(player.getUniqueId());
+                plugin.getScheduler().runAtEntity(player, () -> applyLoaded(player, entry, carried, ledgerBalances));
+            }
+            logger.info("Loaded " + playerIds.size() + " online players from storage");
+        });
+    }
+    
+    private void applyLoaded(Player player, InventoryStore.Loaded entry, boolean carried, Map<String, Double> ledgerBalances) {
+        if (!player.isOnline()) return;
+        
+        UUID playerId = player.getUniqueId();
+        if (carried) {
+            carryLedgerBalance(player, ledgerBalances);
+            saveInventoryToRedis(player, false);
+            return;
+        }
+        try {
+            if (entry != null && entry.data != null && entry.data.version > appliedVersion.getOrDefault(playerId, 0L)) {
+                applyInventoryFromRedis(player, entry.data);
+                appliedVersion.put(playerId, entry.data.version);
+            }
+            
+            if (config.isSyncMoney() && plugin.getEconomySyncManager() != null) {
+                Double balance;
+                if (economyLedger != null) {
+                    // One ledger read per group, not per member
+                    balance = ledgerBalances.computeIfAbsent(trackEconomyGroup(player),
+                        group -> economyLedger.load(group, plugin.getEconomySyncManager().getBalance(player)));
+                } else {
+                    balance = entry != null ? entry.balance : null;
+                    if (balance != null) {
+                        lastSavedBalance.put(playerId, balance);
+                    }
+                }
+                if (balance != null) {
+                    plugin.getEconomySyncManager().applyBalance(player, balance);
+                }
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to load inventory for " + player.getName() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Seed the ledger for a player carried over a reload. Balance changes made while no manager
+     * was listening are recorded as a delta against what the previous ledger last knew, so they
+     * are neither lost nor undo changes other servers committed meanwhile.
+     */
+    private void carryLedgerBalance(Player player, Map<String, Double> ledgerBalances) {
+        if (economyLedger == null || plugin.getEconomySyncManager() == null) {
+            return;
+        }
+        String group = trackEconomyGroup(player);
+        double local = plugin.getEconomySyncManager().getBalance(player);
+        Double balance = ledgerBalances.computeIfAbsent(group, key -> {
+            double current = economyLedger.load(key, local);
+            Double before = carriedLedgerBalances.get(key);
+            if (before == null || before == local) {
+                return current;
+            }
+            economyLedger.record(key, current + local - before);
+            return current + local - before;
+        });
+        if (balance != local) {
+            plugin.getEconomySyncManager().applyBalance(player, balance);
+        }
+    }
+    
+    /**
+     * Called from AsyncPlayerPreLoginEvent, off the main thread.
+     * Loads the stored snapshot so it can be applied the moment the player joins.
+     * Skipped while the player is still registered on another server, since that server
+     * may not have written its quit save yet; the join then falls back to a delayed load.
+     */
+    public void prefetch(UUID playerId) {
+        if (!enabled) return;
+        
+        long now = System.currentTimeMillis();
+        prefetched.values().removeIf(entry -> now - entry.loadedAt > PREFETCH_TTL_MILLIS);
+        awaitingHandoff.values().removeIf(requestedAt -> now - requestedAt > PREFETCH_TTL_MILLIS);
+        try {
+            if (storage.isPlayerActiveElsewhere(playerId, serverId)) {
+                // Switching servers: have the current owner push its final snapshot on quit
+                if (config.isRedisHandoffEnabled() && messageBus != null) {
+                    awaitingHandoff.put(playerId, now);
+                    messageBus.requestHandoff(playerId);
+                }
+                return;
+            }
+            InventoryData data = storage.loadInventory(playerId);
+            if (data == null) {
+                return;
+            }
+            Double balance = config.isSyncMoney() && economyLedger == null ? storage.loadEconomy(playerId) : null;
+            prefetched.put(playerId, new Prefetched(data, balance, now));
+        } catch (Exception e) {
+            logger.fine("Prefetch failed for " + playerId + ": " + e.getMessage());
+        }
+    }
+    
     /**
      * Called when player joins THIS server.
-     * Load their inventory from Redis if coming from another server.
+     * Apply the prefetched snapshot right away, or load it from Redis if nothing was prefetched.
      */
     public void handlePlayerJoin(Player player) {
-        if (!enabled) return;
+        if (!enabled) {
+            joinedBeforeEnable.add(player.getUniqueId());
+            return;
+        }
         
         UUID playerId = player.getUniqueId();
         
         // Mark as pending load
         pendingLoads.put(playerId, System.currentTimeMillis());
         
-        // Delay load to ensure previous server saved
+        Prefetched ready = prefetched.remove(playerId);
+        if (ready != null && System.currentTimeMillis() - ready.loadedAt <= PREFETCH_TTL_MILLIS) {
+            plugin.getScheduler().runAtEntity(player, () -> loadOnJoin(player, ready));
+            return;
+        }
+        
+        // Wait for the handoff if one was requested, otherwise delay so the previous server can save
+        long delay = awaitingHandoff.containsKey(playerId) ? config.getRedisHandoffTimeoutTicks() : 5L;
         plugin.getScheduler().runAtEntityLater(player, () -> {
-            if (!player.isOnline()) return;
-            
-            loadingNow.add(playerId);
-            try {
-                // Register player on this server
-                redisStorage.registerPlayer(playerId, serverId);
-                updateTeamSubscription(player, true);
-                
-                // Load inventory from Redis
-                InventoryData data = redisStorage.loadInventory(playerId);
-                if (data != null) {
-                    applyInventoryFromRedis(player, data);
-                    appliedVersion.put(playerId, data.version);
-                    logger.info(player.getName() + "'s inventory loaded from Redis (v" + data.version + ")");
+            awaitingHandoff.remove(playerId);
+            Prefetched late = prefetched.remove(playerId);
+            if (late == null && !pendingLoads.containsKey(playerId)) {
+                return; // A handoff already completed the join
+            }
+            loadOnJoin(player, late);
+        }, delay);
+    }
+    
+    private void loadOnJoin(Player player, Prefetched ready) {
+        if (!player.isOnline()) return;
+        
+        UUID playerId = player.getUniqueId();
+        boolean joining = pendingLoads.containsKey(playerId);
+        loadingNow.add(playerId);
+        try {
+            // Load inventory from Redis unless it was prefetched
+            InventoryData data = ready != null ? ready.data : storage.loadInventory(playerId);
+            long current = appliedVersion.getOrDefault(playerId, 0L);
+            if (data != null && data.version > current) {
+                applyInventoryFromRedis(player, data);
+                appliedVersion.put(playerId, data.version);
+                logger.info(player.getName() + "'s inventory loaded from Redis (v" + data.version
+                    + (ready != null ? ", prefetched" : "") + ")");
+                if (!plugin.getSyncManager().sharesScope(player, data)) {
+                    // Saved in another world or world group; join this one's shared inventory
+                    plugin.getSyncManager().onScopeChanged(player);
                 }
-                
-                // Load economy if enabled
-                if (config.isSyncMoney()) {
-                    Double balance = redisStorage.loadEconomy(playerId);
-                    if (balance != null && plugin.getEconomySyncManager() != null) {
-                        plugin.getEconomySyncManager().applyBalance(player, balance);
+            }
+            
+            // Load economy if enabled
+            if (config.isSyncMoney() && plugin.getEconomySyncManager() != null) {
+                Double balance;
+                if (economyLedger != null) {
+                    balance = joining
+                        ? economyLedger.load(trackEconomyGroup(player), plugin.getEconomySyncManager().getBalance(player))
+                        : null;
+                } else {
+                    balance = ready != null ? ready.balance : storage.loadEconomy(playerId);
+                    if (balance != null) {
+                        lastSavedBalance.put(playerId, balance);
                     }
                 }
-            } catch (Exception e) {
-                logger.warning("Failed to load inventory for " + player.getName() + ": " + e.getMessage());
-            } finally {
-                loadingNow.remove(playerId);
-                pendingLoads.remove(playerId);
+                if (balance != null) {
+                    plugin.getEconomySyncManager().applyBalance(player, balance);
+                }
             }
-        }, 5L); // 250ms delay
+            
+            // Register player on this server
+            if (joining) {
+                storage.registerPlayer(playerId, serverId);
+                updateTeamSubscription(player, true);
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to load inventory for " + player.getName() + ": " + e.getMessage());
+        } finally {
+            loadingNow.remove(playerId);
+            pendingLoads.remove(playerId);
+        }
     }
     
     /**
@@ -173,7 +465,10 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
      * Save their inventory to Redis for next server.
      */
     public void handlePlayerQuit(Player player) {
-        if (!enabled) return;
+        if (!enabled) {
+            joinedBeforeEnable.remove(player.getUniqueId());
+            return;
+        }
         
         UUID playerId = player.getUniqueId();
         
@@ -182,17 +477,71 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
             return;
         }
         
-        saveInventoryToRedis(player, false);
+        // Capture now: the player is gone by the next tick, so a scheduled capture would never run
+        InventoryData data = captureInventory(player);
+        // In ledger mode the balance is already in Redis as deltas
+        Double balance = config.isSyncMoney() && economyLedger == null && plugin.getEconomySyncManager() != null
+            ? plugin.getEconomySyncManager().getBalance(player) : null;
+        Double savedBalance = lastSavedBalance.remove(playerId);
+        // A handoff left over from an earlier quit must not answer requests for this one
+        departed.remove(playerId);
         
         // Unregister from this server
-        redisStorage.unregisterPlayer(playerId, serverId);
+        storage.unregisterPlayer(playerId, serverId);
         updateTeamSubscription(player, false);
+        releaseEconomyGroup(economyGroup(player), player);
+        
+        // Redis keeps the durable copy, written off the quit path
+        plugin.getScheduler().runAsync(() -> {
+            try {
+                long version = storage.saveInventory(playerId, data);
+                if (version > 0) {
+                    lastSaveVersion.put(playerId, version);
+                    appliedVersion.put(playerId, version);
+                }
+                if (balance != null && !balance.equals(savedBalance)) {
+                    storage.saveEconomy(playerId, balance);
+                }
+                if (config.isRedisHandoffEnabled() && messageBus != null) {
+                    handOff(playerId, data, version, balance);
+                }
+            } catch (Exception e) {
+                logger.warning("Failed to save inventory for " + player.getName() + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Push the quit snapshot to the server the player is switching to. Sent after the Redis
+     * save so it carries the version Redis assigned; if the save failed, the next version is
+     * the best guess and the target's next Redis load settles it.
+     */
+    private void handOff(UUID playerId, InventoryData data, long version, Double balance) {
+        if (version <= 0) {
+            data.version = Math.max(lastSaveVersion.getOrDefault(playerId, 0L), appliedVersion.getOrDefault(playerId, 0L)) + 1;
+            data.timestamp = System.currentTimeMillis();
+        }
+        Handoff handoff = new Handoff(codec.encode(data), data.version, balance, System.currentTimeMillis());
+        // Kept briefly in case the target's request arrives after the quit
+        departed.values().removeIf(entry -> handoff.createdAt - entry.createdAt > PREFETCH_TTL_MILLIS);
+        departed.put(playerId, handoff);
+        String target = handoffTargets.remove(playerId);
+        if (target != null) {
+            messageBus.sendHandoff(playerId, target, handoff.version, handoff.payload, handoff.balance);
+        }
     }
     
     /**
      * Save player inventory to Redis.
      */
     public void saveInventoryToRedis(Player player, boolean fromLocalSync) {
+        saveInventoryToRedis(player, null, fromLocalSync);
+    }
+    
+    /**
+     * Save a snapshot already captured this tick (e.g. for local fan-out), or capture one if {@code captured} is null.
+     */
+    public void saveInventoryToRedis(Player player, InventoryData captured, boolean fromLocalSync) {
         if (!enabled) return;
         
         UUID playerId = player.getUniqueId();
@@ -206,25 +555,28 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
             try {
                 if (!player.isOnline()) return;
                 
-                // Capture inventory
-                InventoryData data = captureInventory(player);
+                // Capture inventory unless the caller already did
+                InventoryData data = captured != null ? captured : captureInventory(player);
                 
                 // Save to Redis
-                long version = redisStorage.saveInventory(playerId, data);
+                long version = storage.saveInventory(playerId, data);
                 if (version > 0) {
                     lastSaveVersion.put(playerId, version);
                     appliedVersion.put(playerId, version);
                     
                     // Broadcast update if from local sync (inventory change)
                     if (fromLocalSync && !loadingNow.contains(playerId)) {
-                        broadcastInventoryUpdate(player, version);
+                        broadcastInventoryUpdate(player, data);
                     }
                 }
                 
-                // Save economy if enabled
-                if (config.isSyncMoney() && plugin.getEconomySyncManager() != null) {
+                // Save economy if enabled and changed since the last write
+                if (config.isSyncMoney() && economyLedger == null && plugin.getEconomySyncManager() != null) {
                     double balance = plugin.getEconomySyncManager().getBalance(player);
-                    redisStorage.saveEconomy(playerId, balance);
+                    Double saved = lastSavedBalance.get(playerId);
+                    if ((saved == null || saved != balance) && storage.saveEconomy(playerId, balance)) {
+                        lastSavedBalance.put(playerId, balance);
+                    }
                 }
             } catch (Exception e) {
                 logger.warning("Failed to save inventory for " + player.getName() + ": " + e.getMessage());
@@ -237,16 +589,24 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
     /**
      * Broadcast inventory update to other servers where player's team members are.
      */
-    private void broadcastInventoryUpdate(Player player, long version) {
-        if (!enabled || pubSubManager == null) return;
+    private void broadcastInventoryUpdate(Player player, InventoryData data) {
+        if (!enabled || messageBus == null) return;
         String teamId = config.isTeamsEnabled() ? getPlayerTeamId(player) : null;
-        pubSubManager.broadcastInventoryUpdate(player.getUniqueId(), version, teamId);
+        if (!reachesRemoteMembers(teamId)) {
+            return;
+        }
+        String payload = null;
+        if (config.isRedisInlinePayload() && data.payload != null
+                && data.payload.getBytes(StandardCharsets.UTF_8).length <= config.getRedisInlinePayloadMaxBytes()) {
+            payload = data.payload;
+        }
+        messageBus.broadcastInventoryUpdate(player.getUniqueId(), data.version, teamId, payload);
     }
     
     /**
      * Handle incoming Redis Pub/Sub messages.
      */
-    private void handleRedisMessage(RedisMessage message) {
+    private void handleRedisMessage(SyncMessage message) {
         switch (message.type) {
             case INVENTORY_UPDATE:
                 handleInventoryUpdate(message);
@@ -260,10 +620,76 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
             case ECONOMY_UPDATE:
                 handleEconomyUpdate(message);
                 break;
+            case HANDOFF_REQUEST:
+                handleHandoffRequest(message);
+                break;
+            case HANDOFF:
+                handleHandoff(message);
+                break;
+            case HANDOFF_ACK:
+                departed.remove(message.playerId);
+                logger.fine("Handoff of " + message.playerId + " acknowledged by " + message.sourceServer);
+                break;
+            case REHYDRATE_REQUEST:
+                TieredInventoryStore tiered = tieredStorage;
+                if (tiered != null) {
+                    plugin.getScheduler().runAsync(() -> tiered.rehydrateOnRequest(message.playerId));
+                }
+                break;
+            case PRESENCE:
+                TeamPresenceRegistry registry = presence;
+                if (registry != null && message.teamId != null) {
+                    registry.onAnnounce(message.teamId, message.sourceServer, message.version == 1L);
+                }
+                break;
+        }
+    }
+    
+    /**
+     * Another server is about to receive one of our players. Remember where they are going,
+     * or answer right away if they already left.
+     */
+    private void handleHandoffRequest(SyncMessage message) {
+        // Also remembered while the quit save is still running; whoever sees the other side sends
+        handoffTargets.put(message.playerId, message.sourceServer);
+        Player player = Bukkit.getPlayer(message.playerId);
+        if (player != null && player.isOnline()) {
+            return;
+        }
+        Handoff handoff = departed.get(message.playerId);
+        if (handoff != null && handoffTargets.remove(message.playerId, message.sourceServer)) {
+            messageBus.sendHandoff(message.playerId, message.sourceServer, handoff.version, handoff.payload, handoff.balance);
+        }
+    }
+    
+    /**
+     * Final snapshot pushed by the server the player just left. Applied at once if the player
+     * is already here, otherwise kept for the join.
+     */
+    private void handleHandoff(SyncMessage message) {
+        if (awaitingHandoff.remove(message.playerId) == null || message.payload == null) {
+            return; // Not expected anymore, the join already fell back to Redis
+        }
+        InventoryData data;
+        try {
+            data = storage.decodeInventory(message.payload);
+        } catch (Exception e) {
+            logger.warning("Discarding unreadable handoff for " + message.playerId + ": " + e.getMessage());
+            return;
+        }
+        data.version = message.version;
+        Prefetched ready = new Prefetched(data, config.isSyncMoney() ? message.balance : null, System.currentTimeMillis());
+        
+        Player player = Bukkit.getPlayer(message.playerId);
+        if (player != null && player.isOnline()) {
+            plugin.getScheduler().runAtEntity(player, () -> loadOnJoin(player, ready));
+        } else {
+            prefetched.put(message.playerId, ready);
         }
+        messageBus.acknowledgeHandoff(message.playerId, message.sourceServer, message.version);
     }
     
-    private void handleInventoryUpdate(RedisMessage message) {
+    private void handleInventoryUpdate(SyncMessage message) {
         // Check if player is on THIS server
         Player player = Bukkit.getPlayer(message.playerId);
         if (player == null || !player.isOnline()) {
@@ -275,11 +701,23 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
             return;
         }
         
+        // Inline payloads are full snapshots, so any newer version can be applied as-is
+        InventoryData inline = null;
+        if (message.payload != null) {
+            try {
+                inline = storage.decodeInventory(message.payload);
+            } catch (Exception e) {
+                logger.fine("Discarding unreadable inline payload for " + message.playerId + ": " + e.getMessage());
+            }
+        }
+        InventoryData received = inline;
+        
         // Load and apply updated inventory
         plugin.getScheduler().runAtEntity(player, () -> {
-            InventoryData data = redisStorage.loadInventory(message.playerId);
+            InventoryData data = received != null ? received : storage.loadInventory(message.playerId, message.version);
             long current = appliedVersion.getOrDefault(message.playerId, 0L);
-            if (data != null && data.version >= message.version && data.version > current) {
+            if (data != null && data.version >= message.version && data.version > current
+                    && plugin.getSyncManager().sharesScope(player, data)) {
                 applyInventoryFromRedis(player, data);
                 appliedVersion.put(message.playerId, data.version);
             }
@@ -297,7 +735,7 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         if (player != null && player.isOnline()) {
             // Player is already here, force reload
             plugin.getScheduler().runAtEntity(player, () -> {
-                InventoryData data = redisStorage.loadInventory(playerId);
+                InventoryData data = storage.loadInventory(playerId, version);
                 long current = appliedVersion.getOrDefault(playerId, 0L);
                 if (data != null && data.version > current) {
                     applyInventoryFromRedis(player, data);
@@ -308,7 +746,35 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         }
     }
     
-    private void handlePlayerDeath(RedisMessage message) {
+    /**
+     * Pull the latest stored inventory for everyone online.
+     * Used after the subscriber reconnects, since updates published during the outage were missed.
+     */
+    private void resyncOnlinePlayers() {
+        if (!enabled) {
+            return;
+        }
+        TeamPresenceRegistry registry = presence;
+        if (registry != null) {
+            plugin.getScheduler().runAsync(registry::refresh);
+        }
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            plugin.getScheduler().runAtEntity(player, () -> {
+                if (!player.isOnline() || savingNow.contains(playerId)) {
+                    return;
+                }
+                InventoryData data = storage.loadInventory(playerId);
+                long current = appliedVersion.getOrDefault(playerId, 0L);
+                if (data != null && data.version > current) {
+                    applyInventoryFromRedis(player, data);
+                    appliedVersion.put(playerId, data.version);
+                }
+            });
+        }
+    }
+    
+    private void handlePlayerDeath(SyncMessage message) {
         if (!config.isSharedDeath()) {
             return;
         }
@@ -325,11 +791,24 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         }
     }
     
-    private void handleEconomyUpdate(RedisMessage message) {
+    private void handleEconomyUpdate(SyncMessage message) {
         if (!config.isSyncMoney()) {
             return;
         }
         
+        if (economyLedger != null) {
+            String group = message.teamId != null ? message.teamId : GLOBAL_ECONOMY_GROUP;
+            if (message.teamId == null && !GLOBAL_ECONOMY_SENDER.equals(message.playerId)) {
+                // Solo group, published globally; only the server the player is on cares
+                if (Bukkit.getPlayer(message.playerId) == null) {
+                    return;
+                }
+                group = message.playerId.toString();
+            }
+            economyLedger.onCommitted(group, message.balance, message.version);
+            return;
+        }
+        
         Player player = Bukkit.getPlayer(message.playerId);
         if (player != null && player.isOnline() && plugin.getEconomySyncManager() != null) {
             plugin.getEconomySyncManager().applyBalance(player, message.balance);
@@ -340,62 +819,26 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
      * Broadcast player death for shared death feature.
      */
     public void broadcastPlayerDeath(Player player) {
-        if (!enabled || pubSubManager == null) return;
+        if (!enabled || messageBus == null) return;
         
         String teamId = config.isTeamsEnabled() ? getPlayerTeamId(player) : null;
-        pubSubManager.broadcastPlayerDeath(player.getUniqueId(), teamId);
+        if (reachesRemoteMembers(teamId)) {
+            messageBus.broadcastPlayerDeath(player.getUniqueId(), teamId);
+        }
         
         // Also save cleared inventory to Redis
         saveInventoryToRedis(player, false);
     }
     
     private InventoryData captureInventory(Player player) {
-        InventoryData data = new InventoryData();
-        PlayerInventory inv = player.getInventory();
-        
-        // Main inventory (36 slots)
-        if (config.isSyncMainInventory()) {
-            for (int i = 0; i < 36; i++) {
-                data.mainInventory.add(CraftItemStack.asNMSCopy(inv.getItem(i)));
-            }
-        }
-        
-        // Armor (4 slots)
-        if (config.isSyncArmor()) {
-            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getHelmet()));
-            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getChestplate()));
-            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getLeggings()));
-            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getBoots()));
-        }
-        
-        // Offhand
-        if (config.isSyncOffhand()) {
-            data.offhand = CraftItemStack.asNMSCopy(inv.getItemInOffHand());
-        }
-        
-        // Ender chest (27 slots)
-        if (config.isSyncEnderChest()) {
-            for (int i = 0; i < 27; i++) {
-                data.enderChest.add(CraftItemStack.asNMSCopy(player.getEnderChest().getItem(i)));
-            }
-        }
-        
-        // Cursor
-        if (config.isSyncCursor()) {
-            data.cursor = CraftItemStack.asNMSCopy(player.getItemOnCursor());
-        }
-        
-        // Experience
-        if (config.isSyncExperience()) {
-            data.xpLevel = player.getLevel();
-            data.xpTotal = player.getTotalExperience();
-            data.xpExp = player.getExp();
-        }
-        
-        return data;
+        return plugin.getSyncManager().captureData(player);
     }
     
     private void applyInventoryFromRedis(Player player, InventoryData data) {
+        if (plugin.getSyncManager() != null) {
+            // A snapshot deferred for an idle player predates this one
+            plugin.getSyncManager().discardPending(player.getUniqueId());
+        }
         ServerPlayer nmsPlayer = ((CraftPlayer) player).getHandle();
         PlayerInventory inv = player.getInventory();
         
@@ -450,13 +893,84 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
         return team != null ? team.toString() : null;
     }
     
+    /**
+     * Capture everyone online and write them in one batch, unregistering them from this server.
+     * Waits at most the configured deadline; with the journal enabled, failed writes are kept on disk.
+     */
+    private void flushOnlinePlayers() {
+        if (!enabled || storage == null) {
+            return;
+        }
+        Map<UUID, InventoryData> snapshots = new HashMap<>();
+        Map<UUID, Double> balances = new HashMap<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            if (loadingNow.contains(playerId) || pendingLoads.containsKey(playerId)) {
+                continue;
+            }
+            try {
+                snapshots.put(playerId, captureInventory(player));
+                if (config.isSyncMoney() && economyLedger == null && plugin.getEconomySyncManager() != null) {
+                    double balance = plugin.getEconomySyncManager().getBalance(player);
+                    Double saved = lastSavedBalance.get(playerId);
+                    if (saved == null || saved != balance) {
+                        balances.put(playerId, balance);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warning("Failed to capture inventory for " + player.getName() + ": " + e.getMessage());
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        
+        long deadline = config.getRedisShutdownFlushMillis();
+        CompletableFuture<Map<UUID, Long>> flush = CompletableFuture.supplyAsync(
+            () -> storage.saveAll(snapshots, balances, serverId));
+        try {
+            Map<UUID, Long> versions = flush.get(deadline, TimeUnit.MILLISECONDS);
+            long failed = versions.values().stream().filter(version -> version <= 0).count();
+            logger.info("Saved " + (versions.size() - failed) + " online players"
+                + (failed > 0 ? " (" + failed + " failed)" : ""));
+        } catch (TimeoutException e) {
+            logger.warning("Saving online players did not finish within " + deadline + "ms");
+        } catch (ExecutionException e) {
+            logger.warning("Failed to save online players: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
     public void shutdown() {
-        if (pubSubManager != null) {
-            pubSubManager.shutdown();
+        flushOnlinePlayers();
+        TeamPresenceRegistry registry = presence;
+        presence = null;
+        if (registry != null) {
+            registry.shutdown();
+            for (String teamId : subscribedTeams) {
+                messageBus.announcePresence(teamId, false);
+            }
+        }
+        if (economyLedger != null) {
+            economyLedger.shutdown();
+            carriedLedgerBalances = economyLedger.knownBalances();
+            economyLedger = null;
+        }
+        if (messageBus != null) {
+            messageBus.shutdown();
         }
         if (velocityIntegration != null) {
             velocityIntegration.shutdown();
         }
+        if (journaledStorage != null) {
+            journaledStorage.shutdown();
+            journaledStorage = null;
+        }
+        if (tieredStorage != null) {
+            tieredStorage.shutdown();
+            tieredStorage = null;
+        }
         if (redisConnection != null) {
             redisConnection.shutdown();
         }
@@ -471,10 +985,120 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
     public String getServerId() {
         return serverId;
     }
+    
+    public ConnectionState getMessagingState() {
+        return messageBus != null ? messageBus.getConnectionState() : ConnectionState.STOPPED;
+    }
+    
+    public long getMessagingReconnects() {
+        return messageBus != null ? messageBus.getReconnectCount() : 0L;
+    }
+    
+    /**
+     * Client-side cache counters, or null when the near-cache is off.
+     */
+    public CacheStats getClientCacheStats() {
+        return redisConnection != null ? redisConnection.getClientCacheStats() : null;
+    }
 
+    /**
+     * A player's balance changed through the economy plugin (not through us).
+     * In ledger mode the change is queued as a delta for the player's group.
+     */
+    public void handleLocalBalanceChange(Player player, double balance) {
+        if (!enabled || economyLedger == null) {
+            return;
+        }
+        economyLedger.record(trackEconomyGroup(player), balance);
+    }
+    
+    /**
+     * Players sharing one balance: a team, the player alone, or everyone when teams are off.
+     */
+    private String economyGroup(Player player) {
+        if (!config.isTeamsEnabled()) {
+            return GLOBAL_ECONOMY_GROUP;
+        }
+        String teamId = getPlayerTeamId(player);
+        return teamId != null ? teamId : player.getUniqueId().toString();
+    }
+    
+    /**
+     * The player's economy group, remembered as solo if they have no team so its commits are published globally.
+     */
+    private String trackEconomyGroup(Player player) {
+        String group = economyGroup(player);
+        if (config.isTeamsEnabled() && group.equals(player.getUniqueId().toString())) {
+            soloEconomyGroups.add(group);
+        }
+        return group;
+    }
+    
+    /**
+     * Let the ledger drop a group once no member other than {@code leaving} is online here.
+     * While changes from this server are still uncommitted the group is kept, and released
+     * again after its next commit.
+     */
+    private void releaseEconomyGroup(String group, Player leaving) {
+        RedisEconomyLedger ledger = economyLedger;
+        if (ledger == null) {
+            return;
+        }
+        for (Player online : plugin.getServer().getOnlinePlayers()) {
+            if (online != leaving && economyGroup(online).equals(group)) {
+                return;
+            }
+        }
+        if (ledger.forget(group)) {
+            soloEconomyGroups.remove(group);
+        }
+    }
+    
+    private class LedgerListener implements RedisEconomyLedger.Listener {
+        @Override
+        public void applyBalance(String group, double balance) {
+            if (plugin.getEconomySyncManager() == null) {
+                return;
+            }
+            List<Player> members = new ArrayList<>();
+            for (Player online : plugin.getServer().getOnlinePlayers()) {
+                if (economyGroup(online).equals(group)) {
+                    members.add(online);
+                }
+            }
+            if (!members.isEmpty()) {
+                plugin.getEconomySyncManager().applyBalances(members, balance);
+            }
+        }
+        
+        @Override
+        public void balanceCommitted(String group, double balance, long sequence) {
+            if (messageBus != null) {
+                publishCommit(group, balance, sequence);
+            }
+            // The last member may have quit while this change was in flight
+            releaseEconomyGroup(group, null);
+        }
+        
+        private void publishCommit(String group, double balance, long sequence) {
+            if (soloEconomyGroups.contains(group)) {
+                // Nobody subscribes to a solo group's channel; publish globally so the server
+                // the player switched to picks up commits flushed after they left
+                messageBus.broadcastEconomyUpdate(UUID.fromString(group), balance, null, sequence);
+                return;
+            }
+            String teamId = GLOBAL_ECONOMY_GROUP.equals(group) ? null : group;
+            if (!reachesRemoteMembers(teamId)) {
+                return;
+            }
+            UUID sender = teamId != null ? UUID.fromString(teamId) : GLOBAL_ECONOMY_SENDER;
+            messageBus.broadcastEconomyUpdate(sender, balance, teamId, sequence);
+        }
+    }
+    
     private void updateTeamSubscription(Player player, boolean join) {
         String teamId = getPlayerTeamId(player);
-        if (teamId == null || !config.isTeamsEnabled() || pubSubManager == null) {
+        if (teamId == null || !config.isTeamsEnabled() || messageBus == null) {
             return;
         }
         teamPresence.compute(teamId, (id, count) -> {
@@ -482,14 +1106,69 @@ public class CrossServerSyncManager implements VelocityIntegration.ServerSwitchH
             int updated = join ? current + 1 : Math.max(0, current - 1);
             if (updated == 0) {
                 if (subscribedTeams.remove(id)) {
-                    pubSubManager.unsubscribeFromTeam(id);
+                    messageBus.unsubscribeFromTeam(id);
+                    updatePresence(id);
                 }
                 return null;
             }
             if (join && subscribedTeams.add(id)) {
-                pubSubManager.subscribeToTeam(id);
+                messageBus.subscribeToTeam(id);
+                updatePresence(id);
             }
             return updated;
         });
     }
+    
+    /**
+     * Record the change in Redis first, then announce it, so a server reading the team's
+     * presence at the same time either sees the entry or hears the announcement. The registry
+     * applies whether the team is subscribed when the update runs, not when it was queued.
+     */
+    private void updatePresence(String teamId) {
+        TeamPresenceRegistry registry = presence;
+        if (registry == null) {
+            return;
+        }
+        registry.update(teamId, () -> subscribedTeams.contains(teamId), present -> {
+            MessageBus bus = messageBus;
+            if (bus != null) {
+                bus.announcePresence(teamId, present);
+            }
+        });
+    }
+    
+    /**
+     * False only when the presence registry knows no other server has members of the team.
+     * Global messages and untracked teams are always published.
+     */
+    private boolean reachesRemoteMembers(String teamId) {
+        TeamPresenceRegistry registry = presence;
+        return teamId == null || registry == null || registry.hasRemoteMembers(teamId);
+    }
+    
+    private static class Prefetched {
+        final InventoryData data;
+        final Double balance;
+        final long loadedAt;
+        
+        Prefetched(InventoryData data, Double balance, long loadedAt) {
+            this.data = data;
+            this.balance = balance;
+            this.loadedAt = loadedAt;
+        }
+    }
+    
+    private static class Handoff {
+        final String payload;
+        final long version;
+        final Double balance;
+        final long createdAt;
+        
+        Handoff(String payload, long version, Double balance, long createdAt) {
+            this.payload = payload;
+            this.version = version;
+            this.balance = balance;
+            this.createdAt = createdAt;
+        }
+    }
 }
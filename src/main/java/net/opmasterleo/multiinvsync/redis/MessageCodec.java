@@ -0,0 +1,214 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import net.opmasterleo.multiinvsync.storage.MessageType;
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+
+/**
+ * Versioned binary envelope for cross-server messages.
+ *
+ * LAYOUT (format 1):
+ * - byte     format version
+ * - byte     message type ordinal
+ * - 16 bytes player UUID
+ * - varint   source server ID (see {@link ServerIdRegistry})
+ * - varlong  inventory version
+ * - varlong  timestamp (epoch millis)
+ * - byte     flags for the optional fields below, in order
+ * - varint   target server ID          (FLAG_TARGET)
+ * - 16 bytes team UUID                 (FLAG_TEAM)
+ * - 8 bytes  balance                   (FLAG_BALANCE)
+ * - varint   length + UTF-8 payload    (FLAG_PAYLOAD)
+ *
+ * A message without optional fields is under 40 bytes. Unknown format versions are rejected
+ * so a newer server can change the layout without older ones misreading it.
+ *
+ * BATCH FRAME: byte {@link #BATCH_MARKER}, varint record count, then each record as
+ * varint length + record bytes. Lets one PUBLISH/XADD carry every message a channel
+ * received during a flush interval.
+ */
+public final class MessageCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+    public static final byte BATCH_MARKER = (byte) 0xB1;
+
+    private static final int FLAG_TARGET = 1;
+    private static final int FLAG_TEAM = 1 << 1;
+    private static final int FLAG_BALANCE = 1 << 2;
+    private static final int FLAG_PAYLOAD = 1 << 3;
+
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Encode a message. {@code sourceId} and {@code targetId} are interned server IDs;
+     * pass a negative target to omit it.
+     */
+    public static byte[] encode(MessageType type, UUID playerId, int sourceId, int targetId, long version,
+                                long timestamp, UUID teamId, Double balance, byte[] payload) {
+        int flags = 0;
+        int size = 2 + 16 + 5 + 10 + 10 + 1;
+        if (targetId >= 0) {
+            flags |= FLAG_TARGET;
+            size += 5;
+        }
+        if (teamId != null) {
+            flags |= FLAG_TEAM;
+            size += 16;
+        }
+        if (balance != null) {
+            flags |= FLAG_BALANCE;
+            size += 8;
+        }
+        if (payload != null) {
+            flags |= FLAG_PAYLOAD;
+            size += 5 + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT_VERSION);
+        buffer.put((byte) type.ordinal());
+        buffer.putLong(playerId.getMostSignificantBits());
+        buffer.putLong(playerId.getLeastSignificantBits());
+        writeVarLong(buffer, sourceId);
+        writeVarLong(buffer, version);
+        writeVarLong(buffer, timestamp);
+        buffer.put((byte) flags);
+        if ((flags & FLAG_TARGET) != 0) {
+            writeVarLong(buffer, targetId);
+        }
+        if ((flags & FLAG_TEAM) != 0) {
+            buffer.putLong(teamId.getMostSignificantBits());
+            buffer.putLong(teamId.getLeastSignificantBits());
+        }
+        if ((flags & FLAG_BALANCE) != 0) {
+            buffer.putDouble(balance);
+        }
+        if ((flags & FLAG_PAYLOAD) != 0) {
+            writeVarLong(buffer, payload.length);
+            buffer.put(payload);
+        }
+        return buffer.position() == size ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Pack several encoded records into one batch frame.
+     */
+    public static byte[] encodeBatch(List<byte[]> records) {
+        int size = 1 + 5;
+        for (byte[] record : records) {
+            size += 5 + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(BATCH_MARKER);
+        writeVarLong(buffer, records.size());
+        for (byte[] record : records) {
+            writeVarLong(buffer, record.length);
+            buffer.put(record);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Decode either a single record or a batch frame.
+     */
+    public static List<SyncMessage> decodeFrame(byte[] data) {
+        if (data.length == 0 || data[0] != BATCH_MARKER) {
+            List<SyncMessage> single = new ArrayList<>(1);
+            single.add(decode(data, 0, data.length));
+            return single;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.get();
+            int count = (int) readVarLong(buffer);
+            List<SyncMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = (int) readVarLong(buffer);
+                messages.add(decode(data, buffer.position(), length));
+                buffer.position(buffer.position() + length);
+            }
+            return messages;
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Malformed batch frame", e);
+        }
+    }
+
+    /**
+     * Decode a message. Server IDs are left unresolved in {@code sourceId}/{@code targetId}
+     * so callers can drop echoes before doing any name lookups.
+     *
+     * @throws IllegalArgumentException if the format version is unknown or the data is truncated
+     */
+    public static SyncMessage decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    private static SyncMessage decode(byte[] data, int offset, int length) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+            byte format = buffer.get();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported message format " + format);
+            }
+            SyncMessage message = new SyncMessage();
+            message.type = TYPES[buffer.get()];
+            message.playerId = new UUID(buffer.getLong(), buffer.getLong());
+            message.sourceId = (int) readVarLong(buffer);
+            message.version = readVarLong(buffer);
+            message.timestamp = readVarLong(buffer);
+            int flags = buffer.get();
+            if ((flags & FLAG_TARGET) != 0) {
+                message.targetId = (int) readVarLong(buffer);
+            }
+            if ((flags & FLAG_TEAM) != 0) {
+                message.teamId = new UUID(buffer.getLong(), buffer.getLong()).toString();
+            }
+            if ((flags & FLAG_BALANCE) != 0) {
+                message.balance = buffer.getDouble();
+            }
+            if ((flags & FLAG_PAYLOAD) != 0) {
+                int payloadLength = (int) readVarLong(buffer);
+                message.payload = new String(data, buffer.position(), payloadLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + payloadLength);
+            }
+            return message;
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Malformed message", e);
+        }
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+}
@@ -0,0 +1,150 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects outbound cross-server messages and hands them over once per flush interval,
+ * grouped by channel in publish order. The default interval is one server tick (50ms),
+ * so a busy tick costs one pipelined round trip instead of one pool checkout per event.
+ *
+ * A batch that could not be sent (Redis down, or a failover in progress) is kept and sent
+ * ahead of newer messages, retried once a second or as soon as {@link #replay()} reports the
+ * connection is back. Delivery is therefore at least once; receivers already ignore versions
+ * they have applied. Only the newest {@value #MAX_RETAINED} messages are kept.
+ * With batching disabled, messages are sent directly and only failed ones pass through here.
+ */
+public class OutboundBatcher {
+
+    private static final int MAX_RETAINED = 10000;
+    private static final long RETRY_MILLIS = 1000L;
+
+    private final Logger logger;
+    private final Predicate<Map<String, List<byte[]>>> sink;
+    private final ConcurrentLinkedQueue<Outbound> queue = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private final ArrayDeque<Outbound> retained = new ArrayDeque<>();
+    private long retryAt;
+    private volatile boolean holding;
+
+    /**
+     * @param sink sends one batch and returns false if it was not sent
+     */
+    public OutboundBatcher(Logger logger, long intervalMillis, Predicate<Map<String, List<byte[]>>> sink) {
+        this.logger = logger;
+        this.sink = sink;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void enqueue(String channel, byte[] message) {
+        queue.add(new Outbound(channel, message));
+    }
+
+    /**
+     * Whether messages are waiting, so a message sent directly would overtake them.
+     */
+    public boolean hasPending() {
+        return holding || !queue.isEmpty();
+    }
+
+    /**
+     * Send everything queued so far. Safe to call from any thread.
+     */
+    public synchronized void flush() {
+        if (queue.isEmpty() && retained.isEmpty()) {
+            return;
+        }
+        boolean waiting = !retained.isEmpty() && System.currentTimeMillis() < retryAt;
+        // Older messages go first, so each channel keeps its publish order
+        List<Outbound> pending = new ArrayList<>(retained);
+        retained.clear();
+        Outbound next;
+        while ((next = queue.poll()) != null) {
+            pending.add(next);
+        }
+        if (waiting) {
+            retain(pending);
+            return;
+        }
+
+        Map<String, List<byte[]>> batch = new LinkedHashMap<>();
+        for (Outbound outbound : pending) {
+            batch.computeIfAbsent(outbound.channel, channel -> new ArrayList<>()).add(outbound.message);
+        }
+        boolean sent;
+        try {
+            sent = sink.test(batch);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to publish message batch", e);
+            sent = false;
+        }
+        if (sent) {
+            retryAt = 0L;
+            holding = false;
+        } else {
+            retain(pending);
+            retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+        }
+    }
+
+    /**
+     * The connection is usable again (reconnect or failover), send held messages now.
+     */
+    public void replay() {
+        synchronized (this) {
+            retryAt = 0L;
+        }
+        flush();
+    }
+
+    private void retain(List<Outbound> pending) {
+        retained.addAll(pending);
+        holding = !retained.isEmpty();
+        int dropped = 0;
+        while (retained.size() > MAX_RETAINED) {
+            retained.poll();
+            dropped++;
+        }
+        if (dropped > 0) {
+            logger.warning("Redis unavailable, dropped " + dropped + " oldest outbound message(s)");
+        }
+    }
+
+    /**
+     * Stop the timer and send whatever is still queued.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        replay();
+    }
+
+    private static class Outbound {
+        final String channel;
+        final byte[] message;
+
+        Outbound(String channel, byte[] message) {
+            this.channel = channel;
+            this.message = message;
+        }
+    }
+}
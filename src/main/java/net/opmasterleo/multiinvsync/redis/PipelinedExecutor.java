@@ -0,0 +1,190 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Jedis;
+
+/**
+ * Shares a few long-lived connections between all callers by pipelining their commands.
+ *
+ * Each lane owns one connection and one writer thread. The writer takes whatever has
+ * queued up since its last round trip (up to {@code maxBatch} commands), sends it as a
+ * single pipeline and completes the callers' futures. Under load this turns many small
+ * round trips into a few large ones and callers never wait for a pool checkout.
+ *
+ * In cluster mode a lane cannot own a single connection, so it opens a cluster pipeline
+ * per round trip and lets it route each command to its slot's node.
+ */
+public class PipelinedExecutor {
+
+    private final RedisConnectionManager redis;
+    private final Logger logger;
+    private final int maxBatch;
+    private final Lane[] lanes;
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private volatile boolean running = true;
+    private volatile int generation;
+
+    public PipelinedExecutor(RedisConnectionManager redis, Logger logger, int connections, int maxBatch) {
+        this.redis = redis;
+        this.logger = logger;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lanes = new Lane[Math.max(1, connections)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+    }
+
+    /**
+     * Queue a command on the next lane. The future completes after the batch it joined is flushed.
+     */
+    public <T> CompletableFuture<T> submit(RedisConnectionManager.PipelinedCommand<T> command) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Pipelined executor stopped"));
+            return future;
+        }
+        Lane lane = lanes[Math.floorMod(nextLane.getAndIncrement(), lanes.length)];
+        lane.queue.add(new Queued<>(command, future));
+        return future;
+    }
+
+    /**
+     * Make every lane open a fresh connection before its next round trip, e.g. after a failover
+     * moved the master. Commands already in flight finish or fail on the old connection.
+     */
+    public void reconnect() {
+        generation++;
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class Lane {
+        final BlockingQueue<Queued<?>> queue = new LinkedBlockingQueue<>();
+        final Thread thread;
+        Jedis connection;
+        int connectionGeneration;
+
+        Lane(int index) {
+            thread = new Thread(this::run, "Redis-Pipeline-" + index);
+            thread.setDaemon(true);
+        }
+
+        private void run() {
+            List<Queued<?>> batch = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Queued<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        // Drain what is left so no caller waits forever
+                        queue.drainTo(batch);
+                        if (!batch.isEmpty()) {
+                            flush(batch);
+                        }
+                        break;
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+        }
+
+        private void flush(List<Queued<?>> batch) {
+            try {
+                if (redis.isClusterMode()) {
+                    try (AbstractPipeline pipeline = redis.openPipeline()) {
+                        send(pipeline, batch);
+                    }
+                } else {
+                    if (connection != null && connectionGeneration != generation) {
+                        connection.close();
+                        connection = null;
+                    }
+                    if (connection == null) {
+                        connectionGeneration = generation;
+                        connection = redis.getResource();
+                    }
+                    // Closing the pipeline leaves the lane's connection open for the next batch
+                    try (AbstractPipeline pipeline = connection.pipelined()) {
+                        send(pipeline, batch);
+                    }
+                }
+                for (Queued<?> queued : batch) {
+                    queued.complete();
+                }
+            } catch (Exception e) {
+                logger.warning("Redis pipeline failed (" + batch.size() + " commands): " + e.getMessage());
+                if (connection != null) {
+                    connection.close();
+                    connection = null;
+                }
+                for (Queued<?> queued : batch) {
+                    queued.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static void send(AbstractPipeline pipeline, List<Queued<?>> batch) {
+        for (Queued<?> queued : batch) {
+            queued.queue(pipeline);
+        }
+        pipeline.sync();
+    }
+
+    private static class Queued<T> {
+        final RedisConnectionManager.PipelinedCommand<T> command;
+        final CompletableFuture<T> future;
+        Supplier<T> result;
+
+        Queued(RedisConnectionManager.PipelinedCommand<T> command, CompletableFuture<T> future) {
+            this.command = command;
+            this.future = future;
+        }
+
+        void queue(AbstractPipeline pipeline) {
+            result = command.queue(pipeline);
+        }
+
+        void complete() {
+            try {
+                future.complete(result.get());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential reconnect backoff with full jitter.
+ * Spreads reconnect attempts so every server does not hit a recovering Redis at the same instant.
+ */
+public class ReconnectBackoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+    private int attempt = 0;
+
+    public ReconnectBackoff(long baseMillis, long maxMillis) {
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Delay before the next attempt: random in [base, min(max, base * 2^attempt)].
+     */
+    public long nextDelay() {
+        long ceiling = Math.min(maxMillis, baseMillis << Math.min(attempt, 20));
+        attempt++;
+        return baseMillis + ThreadLocalRandom.current().nextLong(Math.max(1L, ceiling - baseMillis + 1));
+    }
+
+    public void reset() {
+        attempt = 0;
+    }
+}
@@ -1,35 +1,188 @@
 package net.opmasterleo.multiinvsync.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.RedisClient;
+import redis.clients.jedis.RedisClusterClient;
+import redis.clients.jedis.RedisProtocol;
+import redis.clients.jedis.RedisSentinelClient;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.csc.CacheConfig;
+import redis.clients.jedis.csc.CacheStats;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.JedisClusterCRC16;
 
 /**
  * Manages Redis connection pooling for high-performance, thread-safe access.
  * Uses Jedis connection pool to minimize overhead and support concurrent operations.
+ *
+ * In pipelined mode, short commands submitted through {@link #pipelined(PipelinedCommand)}
+ * share a few dedicated connections instead of checking one out of the pool each time.
+ * The pool stays in use for blocking subscribers and multi-step commands.
+ *
+ * In cluster mode the client is a {@link RedisClusterClient}; commands are routed by key slot,
+ * and callers keep related keys in one slot with hash tags (see {@link #isClusterMode()}).
+ *
+ * With client-side caching enabled the connection speaks RESP3 and registers for server-assisted
+ * invalidation; plain GETs on keys accepted by the cache filter are then answered from local
+ * memory until Redis reports that the key changed.
+ *
+ * In Sentinel mode the client asks the sentinels for the current master and follows their
+ * master-switch notifications, replacing its pool in the background while callers keep
+ * issuing commands. Dedicated connections (subscribers, pipeline lanes) are reopened on the
+ * new master, and failover listeners are told so they can resubscribe and resend.
+ *
+ * With read replicas configured, {@link #readReplica(PipelinedCommand)} spreads reads over
+ * the replicas in turn. Replicas lag behind the primary, so callers only use it for reads
+ * they can check against a known version and repeat on the primary.
  */
 public class RedisConnectionManager {
     
     private final Logger logger;
-    private JedisPool jedisPool;
+    private UnifiedJedis client;
     private final String host;
     private final int port;
     private final String password;
     private final int database;
     private final int timeout;
+    private final int poolSize;
+    private final boolean pipelinedMode;
+    private final int pipelineConnections;
+    private final int pipelineMaxBatch;
+    private PipelinedExecutor pipelinedExecutor;
+    private List<String> clusterNodes = List.of();
+    private int clientCacheSize = 0;
+    private Predicate<String> cacheableKeys;
+    private String sentinelMaster;
+    private List<String> sentinelNodes = List.of();
+    private String sentinelPassword;
+    private DefaultJedisClientConfig masterConfig;
+    private ScheduledExecutorService failoverWatcher;
+    private volatile HostAndPort currentMaster;
+    private final List<Runnable> failoverListeners = new CopyOnWriteArrayList<>();
+    private List<String> replicaNodes = List.of();
+    private volatile UnifiedJedis[] replicas = new UnifiedJedis[0];
+    private final AtomicInteger nextReplica = new AtomicInteger();
     private volatile boolean connected = false;
     
     public RedisConnectionManager(Logger logger, String host, int port, String password, int database, int timeout) {
+        this(logger, host, port, password, database, timeout, 10, false, 0, 0);
+    }
+    
+    /**
+     * @param poolSize maximum number of pooled connections
+     * @param pipelinedMode route {@link #pipelined(PipelinedCommand)} through shared pipelined connections
+     * @param pipelineConnections number of shared connections in pipelined mode
+     * @param pipelineMaxBatch maximum commands sent in one round trip per connection
+     */
+    public RedisConnectionManager(Logger logger, String host, int port, String password, int database, int timeout,
+                                  int poolSize, boolean pipelinedMode, int pipelineConnections, int pipelineMaxBatch) {
         this.logger = logger;
         this.host = host;
         this.port = port;
         this.password = password;
         this.database = database;
         this.timeout = timeout;
+        this.poolSize = poolSize;
+        this.pipelinedMode = pipelinedMode;
+        this.pipelineConnections = pipelineConnections;
+        this.pipelineMaxBatch = pipelineMaxBatch;
+    }
+    
+    /**
+     * Connect to a Redis Cluster through these seed nodes ("host:port") instead of a single server.
+     * Must be called before {@link #connect()}.
+     */
+    public void setClusterNodes(List<String> clusterNodes) {
+        this.clusterNodes = clusterNodes != null ? clusterNodes : List.of();
+    }
+    
+    public boolean isClusterMode() {
+        return !clusterNodes.isEmpty();
+    }
+    
+    /**
+     * Find the master through these sentinels ("host:port") and follow failovers.
+     * Must be called before {@link #connect()}. Ignored in cluster mode.
+     */
+    public void setSentinel(String masterName, List<String> sentinels, String sentinelPassword) {
+        this.sentinelMaster = masterName;
+        this.sentinelNodes = sentinels != null ? sentinels : List.of();
+        this.sentinelPassword = sentinelPassword;
+    }
+    
+    public boolean isSentinelMode() {
+        return !isClusterMode() && !sentinelNodes.isEmpty();
+    }
+    
+    /**
+     * Run after the sentinels promoted a new master. Called on the watcher thread.
+     */
+    public void addFailoverListener(Runnable listener) {
+        failoverListeners.add(listener);
+    }
+    
+    /**
+     * Serve version-checked reads from these replicas ("host:port") of the primary.
+     * Must be called before {@link #connect()}. Ignored in cluster mode.
+     */
+    public void setReplicaNodes(List<String> replicaNodes) {
+        this.replicaNodes = replicaNodes != null ? replicaNodes : List.of();
+    }
+    
+    public boolean hasReplicas() {
+        return replicas.length > 0;
+    }
+    
+    /**
+     * Cache GET results for keys matching {@code cacheableKeys}, invalidated by the server (RESP3 tracking).
+     * Must be called before {@link #connect()}. Requires Redis 6 or newer.
+     */
+    public void enableClientSideCache(int maxEntries, Predicate<String> cacheableKeys) {
+        this.clientCacheSize = maxEntries;
+        this.cacheableKeys = cacheableKeys;
+    }
+    
+    /**
+     * True when direct reads may be served from the client-side cache.
+     * Pipelined commands always bypass it.
+     */
+    public boolean isClientSideCaching() {
+        return clientCacheSize > 0;
+    }
+    
+    /**
+     * Hit/miss counters of the client-side cache, or null when it is disabled.
+     */
+    public CacheStats getClientCacheStats() {
+        return client != null && isClientSideCaching() ? client.getCache().getStats() : null;
     }
     
     /**
@@ -37,46 +190,206 @@ public class RedisConnectionManager {
      */
     public boolean connect() {
         try {
-            JedisPoolConfig poolConfig = new JedisPoolConfig();
-            poolConfig.setMaxTotal(10); // Reduced for efficiency
-            poolConfig.setMaxIdle(5);
-            poolConfig.setMinIdle(2);
+            ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+            // Pipelined lanes hold their connection for the plugin's lifetime
+            int maxTotal = Math.max(2, poolSize) + (pipelinedMode ? pipelineConnections : 0);
+            poolConfig.setMaxTotal(maxTotal);
+            poolConfig.setMaxIdle(Math.max(2, maxTotal / 2));
+            poolConfig.setMinIdle(Math.min(2, maxTotal));
             poolConfig.setTestOnBorrow(false); // Disabled for speed
             poolConfig.setTestWhileIdle(false); // Disabled for speed
             poolConfig.setBlockWhenExhausted(true);
-            poolConfig.setMaxWaitMillis(2000); // Faster timeout
+            poolConfig.setMaxWait(Duration.ofMillis(2000)); // Faster timeout
             poolConfig.setJmxEnabled(false); // Disable JMX overhead
             
-            if (password != null && !password.isEmpty()) {
-                jedisPool = new JedisPool(poolConfig, host, port, timeout, password, database);
+            DefaultJedisClientConfig.Builder clientConfig = DefaultJedisClientConfig.builder()
+                .timeoutMillis(timeout)
+                .password(password);
+            
+            CacheConfig cacheConfig = null;
+            if (isClientSideCaching()) {
+                // Server-assisted invalidation needs RESP3 push messages
+                clientConfig.protocol(RedisProtocol.RESP3);
+                cacheConfig = CacheConfig.builder()
+                    .maxSize(clientCacheSize)
+                    .cacheable((command, keys) -> command == Protocol.Command.GET && allCacheable(keys))
+                    .build();
+            }
+            
+            if (isClusterMode()) {
+                // Cluster nodes only have database 0
+                client = RedisClusterClient.builder()
+                    .nodes(parseNodes(clusterNodes))
+                    .clientConfig(clientConfig.build())
+                    .cacheConfig(cacheConfig)
+                    .poolConfig(poolConfig)
+                    .maxAttempts(5)
+                    .build();
+            } else if (isSentinelMode()) {
+                masterConfig = clientConfig.database(database).build();
+                JedisClientConfig sentinelConfig = DefaultJedisClientConfig.builder()
+                    .timeoutMillis(timeout)
+                    .password(sentinelPassword)
+                    .build();
+                client = RedisSentinelClient.builder()
+                    .masterName(sentinelMaster)
+                    .sentinels(parseNodes(sentinelNodes))
+                    .sentinelClientConfig(sentinelConfig)
+                    .clientConfig(masterConfig)
+                    .cacheConfig(cacheConfig)
+                    .poolConfig(poolConfig)
+                    .build();
             } else {
-                jedisPool = new JedisPool(poolConfig, host, port, timeout, null, database);
+                client = RedisClient.builder()
+                    .hostAndPort(new HostAndPort(host, port))
+                    .clientConfig(clientConfig.database(database).build())
+                    .cacheConfig(cacheConfig)
+                    .poolConfig(poolConfig)
+                    .build();
             }
             
-            try (Jedis jedis = jedisPool.getResource()) {
-                jedis.ping();
-                connected = true;
+            client.ping();
+            connected = true;
+            if (isClusterMode()) {
+                logger.info("Connected to Redis Cluster via " + String.join(", ", clusterNodes)
+                    + " (" + ((RedisClusterClient) client).getClusterNodes().size() + " nodes)");
+            } else if (isSentinelMode()) {
+                currentMaster = ((RedisSentinelClient) client).getCurrentMaster();
+                logger.info("Connected to Redis master '" + sentinelMaster + "' at " + currentMaster
+                    + " via " + sentinelNodes.size() + " sentinel(s)");
+                startFailoverWatcher();
+            } else {
                 logger.info("Connected to Redis successfully at " + host + ":" + port + " (database " + database + ")");
-                return true;
             }
+            
+            if (isClientSideCaching()) {
+                logger.info("Redis client-side caching enabled (max " + clientCacheSize + " entries)");
+            }
+            
+            if (!replicaNodes.isEmpty()) {
+                if (isClusterMode()) {
+                    logger.warning("Redis read replicas are not used in cluster mode");
+                } else {
+                    connectReplicas(clientConfig.database(database).build());
+                }
+            }
+            
+            if (pipelinedMode) {
+                pipelinedExecutor = new PipelinedExecutor(this, logger, pipelineConnections, pipelineMaxBatch);
+                logger.info("Redis pipelined mode: " + pipelineConnections + " connection(s), batches of up to "
+                    + pipelineMaxBatch + " commands");
+            }
+            return true;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Could not connect to Redis server", e);
+            if (client != null) {
+                client.close();
+                client = null;
+            }
             connected = false;
             return false;
         }
     }
     
+    /**
+     * The client swaps its pool as soon as a sentinel announces a new master; reading its
+     * current master is a field read, so polling it is how the rest of the plugin finds out.
+     */
+    private void startFailoverWatcher() {
+        failoverWatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Failover");
+            t.setDaemon(true);
+            return t;
+        });
+        failoverWatcher.scheduleWithFixedDelay(this::checkMaster, 250L, 250L, TimeUnit.MILLISECONDS);
+    }
+    
+    private void checkMaster() {
+        if (!(client instanceof RedisSentinelClient sentineled)) {
+            return;
+        }
+        HostAndPort master = sentineled.getCurrentMaster();
+        HostAndPort previous = currentMaster;
+        if (master == null || master.equals(previous)) {
+            return;
+        }
+        currentMaster = master;
+        logger.warning("Redis failover: master '" + sentinelMaster + "' moved from " + previous + " to " + master);
+        PipelinedExecutor executor = pipelinedExecutor;
+        if (executor != null) {
+            executor.reconnect();
+        }
+        for (Runnable listener : failoverListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Redis failover listener failed", e);
+            }
+        }
+    }
+    
+    private void connectReplicas(DefaultJedisClientConfig clientConfig) {
+        ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+        poolConfig.setMaxTotal(Math.max(2, poolSize));
+        poolConfig.setMaxIdle(Math.max(2, poolSize / 2));
+        poolConfig.setTestOnBorrow(false);
+        poolConfig.setTestWhileIdle(false);
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(2000));
+        poolConfig.setJmxEnabled(false);
+        
+        List<UnifiedJedis> connected = new ArrayList<>();
+        for (HostAndPort address : parseNodes(replicaNodes)) {
+            RedisClient replica = RedisClient.builder()
+                .hostAndPort(address)
+                .clientConfig(clientConfig)
+                .poolConfig(poolConfig)
+                .build();
+            try {
+                replica.ping();
+                connected.add(replica);
+            } catch (JedisException e) {
+                logger.warning("Could not connect to Redis replica " + address + ": " + e.getMessage());
+                replica.close();
+            }
+        }
+        replicas = connected.toArray(new UnifiedJedis[0]);
+        if (!connected.isEmpty()) {
+            logger.info("Redis reads spread over " + connected.size() + " replica(s)");
+        }
+    }
+    
+    /**
+     * Run a read-only pipeline on the next replica.
+     * Returns null if no replica is configured or the read failed; the caller then reads the primary.
+     */
+    public <T> T readReplica(PipelinedCommand<T> command) {
+        UnifiedJedis[] available = replicas;
+        if (!connected || available.length == 0) {
+            return null;
+        }
+        UnifiedJedis replica = available[Math.floorMod(nextReplica.getAndIncrement(), available.length)];
+        try (AbstractPipeline pipeline = replica.pipelined()) {
+            Supplier<T> result = command.queue(pipeline);
+            pipeline.sync();
+            return result.get();
+        } catch (JedisException e) {
+            logger.fine("Redis replica read failed, using primary: " + e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * Execute a Redis command with automatic resource management.
      * Handles connection failures gracefully.
      */
     public <T> T execute(RedisCommand<T> command) {
-        if (!connected || jedisPool == null) {
+        if (!connected || client == null) {
             return null;
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
-            return command.execute(jedis);
+        try {
+            return command.execute(client);
         } catch (JedisException e) {
             logger.warning("Redis command failed: " + e.getMessage());
             return null;
@@ -91,36 +404,170 @@ public class RedisConnectionManager {
     }
     
     /**
-     * Get a Jedis resource directly for pub/sub operations.
+     * Run a short command and wait for its result.
+     * In pipelined mode it joins the next batch on a shared connection; otherwise it runs on a pooled connection.
+     * Returns null if Redis is unavailable or the command failed.
+     */
+    public <T> T pipelined(PipelinedCommand<T> command) {
+        if (!connected || client == null) {
+            return null;
+        }
+        
+        if (pipelinedExecutor == null) {
+            return execute(jedis -> {
+                try (AbstractPipeline pipeline = jedis.pipelined()) {
+                    Supplier<T> result = command.queue(pipeline);
+                    pipeline.sync();
+                    return result.get();
+                }
+            });
+        }
+        
+        CompletableFuture<T> future = pipelinedExecutor.submit(command);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.warning("Redis command failed: " + e.getCause().getMessage());
+            return null;
+        } catch (TimeoutException e) {
+            logger.warning("Redis command timed out after " + timeout + "ms");
+            return null;
+        }
+    }
+    
+    /**
+     * Queue a short command without waiting for it (for void operations).
+     */
+    public <T> void pipelinedVoid(PipelinedCommand<T> command) {
+        if (pipelinedExecutor == null) {
+            pipelined(command);
+            return;
+        }
+        if (connected) {
+            pipelinedExecutor.submit(command);
+        }
+    }
+    
+    /**
+     * Open a pipeline that is not bound to a single connection.
+     * In cluster mode it routes each command to the node owning its key. Caller must close it.
+     */
+    public AbstractPipeline openPipeline() {
+        if (!connected || client == null) {
+            throw new IllegalStateException("Redis not connected");
+        }
+        return client.pipelined();
+    }
+    
+    /**
+     * Get a dedicated Jedis connection for pub/sub operations.
      * IMPORTANT: Caller must close the resource!
      */
     public Jedis getResource() {
-        if (!connected || jedisPool == null) {
+        return getResource(null);
+    }
+    
+    /**
+     * Get a dedicated Jedis connection to the node serving {@code routingKey}.
+     * Blocking reads such as XREAD must run on the node that owns their keys in cluster mode.
+     * IMPORTANT: Caller must close the resource!
+     */
+    public Jedis getResource(String routingKey) {
+        if (!connected || client == null) {
             throw new IllegalStateException("Redis not connected");
         }
-        return jedisPool.getResource();
+        if (client instanceof RedisClient pooled) {
+            return new Jedis(pooled.getPool().getResource());
+        }
+        if (client instanceof RedisSentinelClient sentineled) {
+            // Opened on whichever node is master now, so a reconnect after failover lands on the new one
+            return new Jedis(sentineled.getCurrentMaster(), masterConfig);
+        }
+        RedisClusterClient cluster = (RedisClusterClient) client;
+        if (routingKey != null) {
+            return new Jedis(cluster.getConnectionFromSlot(JedisClusterCRC16.getSlot(routingKey)));
+        }
+        // Pub/Sub messages are broadcast to every node, so any node will do
+        Iterator<ConnectionPool> nodes = cluster.getClusterNodes().values().iterator();
+        if (!nodes.hasNext()) {
+            throw new IllegalStateException("No Redis Cluster nodes available");
+        }
+        Connection connection = nodes.next().getResource();
+        return new Jedis(connection);
     }
     
     /**
      * Shutdown connection pool and close all connections.
      */
     public void shutdown() {
-        if (jedisPool != null && !jedisPool.isClosed()) {
-            jedisPool.close();
+        if (failoverWatcher != null) {
+            failoverWatcher.shutdownNow();
+            failoverWatcher = null;
+        }
+        failoverListeners.clear();
+        if (pipelinedExecutor != null) {
+            pipelinedExecutor.shutdown();
+            pipelinedExecutor = null;
+        }
+        UnifiedJedis[] open = replicas;
+        replicas = new UnifiedJedis[0];
+        for (UnifiedJedis replica : open) {
+            replica.close();
+        }
+        if (client != null) {
+            client.close();
+            client = null;
             connected = false;
             logger.info("Disconnected from Redis");
         }
     }
     
     public boolean isConnected() {
-        return connected && jedisPool != null && !jedisPool.isClosed();
+        return connected && client != null;
+    }
+    
+    private boolean allCacheable(List<Object> keys) {
+        for (Object key : keys) {
+            String name = key instanceof byte[] ? new String((byte[]) key, StandardCharsets.UTF_8) : String.valueOf(key);
+            if (!cacheableKeys.test(name)) {
+                return false;
+            }
+        }
+        return !keys.isEmpty();
+    }
+    
+    private Set<HostAndPort> parseNodes(List<String> nodes) {
+        Set<HostAndPort> parsed = new HashSet<>();
+        for (String node : nodes) {
+            int separator = node.lastIndexOf(':');
+            if (separator < 0) {
+                parsed.add(new HostAndPort(node.trim(), 6379));
+            } else {
+                parsed.add(new HostAndPort(node.substring(0, separator).trim(),
+                    Integer.parseInt(node.substring(separator + 1).trim())));
+            }
+        }
+        return parsed;
     }
     
     /**
      * Functional interface for Redis commands.
+     * Receives the shared client; in cluster mode multi-key commands must stay within one hash slot.
      */
     @FunctionalInterface
     public interface RedisCommand<T> {
-        T execute(Jedis jedis);
+        T execute(UnifiedJedis jedis);
+    }
+    
+    /**
+     * Command that only queues work on a pipeline. The supplier is read after the pipeline is synced,
+     * so a single {@link redis.clients.jedis.Response} can be returned as-is.
+     */
+    @FunctionalInterface
+    public interface PipelinedCommand<T> {
+        Supplier<T> queue(AbstractPipeline pipeline);
     }
 }
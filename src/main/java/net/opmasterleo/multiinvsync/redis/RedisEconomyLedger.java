@@ -0,0 +1,313 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Shared balances kept in Redis as a ledger of deltas instead of absolute values.
+ *
+ * KEY STRUCTURE (one hash slot per group):
+ * - mis:{eco:<group>}:bal - Balance, only ever changed by INCRBYFLOAT
+ * - mis:{eco:<group>}:seq - Incremented with every applied delta, orders balance messages
+ * - mis:{eco:<group>}:tx:<id> - Marks a transaction as applied (24 hours)
+ *
+ * Local balance changes are summed per group and flushed every interval as one transaction
+ * per group. A script applies a transaction only if its ID is new, so a retry after a timeout
+ * never counts twice. Because deltas commute, servers changing the same balance at the
+ * same time no longer overwrite each other. The local view of a group is the committed
+ * balance plus whatever this server has not committed yet.
+ */
+public class RedisEconomyLedger {
+
+    private static final String APPLY_SCRIPT =
+        "if redis.call('SET', KEYS[3], '1', 'NX', 'EX', ARGV[2]) then "
+        + "redis.call('INCRBYFLOAT', KEYS[1], ARGV[1]) redis.call('INCR', KEYS[2]) end "
+        + "return {redis.call('GET', KEYS[1]), redis.call('GET', KEYS[2])}";
+    private static final String INIT_SCRIPT =
+        "redis.call('SET', KEYS[1], ARGV[1], 'NX') "
+        + "return {redis.call('GET', KEYS[1]), redis.call('GET', KEYS[2])}";
+    private static final long TX_TTL_SECONDS = 86400L;
+
+    private final RedisConnectionManager redis;
+    private final Logger logger;
+    private final Listener listener;
+    private final String txPrefix;
+    private final AtomicLong txCounter = new AtomicLong();
+    private final Map<String, Double> pending = new HashMap<>();
+    private final List<Transaction> unconfirmed = new ArrayList<>();
+    private final Map<String, Double> lastKnown = new HashMap<>();
+    private final Map<String, Long> lastSequence = new HashMap<>();
+    private final Map<String, Double> lastCommitted = new HashMap<>();
+    private final Map<String, Double> unseeded = new HashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public RedisEconomyLedger(RedisConnectionManager redis, Logger logger, String serverId, long flushMillis, Listener listener) {
+        this.redis = redis;
+        this.logger = logger;
+        this.listener = listener;
+        this.txPrefix = serverId + ":" + System.currentTimeMillis() + ":";
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Ledger");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(10L, flushMillis);
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Committed balance of the group plus local changes not yet flushed.
+     * Seeds the ledger with {@code localBalance} if the group has no balance yet.
+     * Blocks on Redis; returns {@code localBalance} if Redis is unreachable.
+     */
+    public double load(String group, double localBalance) {
+        Object result = redis.execute(jedis -> jedis.eval(INIT_SCRIPT,
+            List.of(balanceKey(group), sequenceKey(group)), List.of(String.valueOf(localBalance))));
+        synchronized (this) {
+            double[] committed = parse(result);
+            if (committed != null && committed[1] >= lastSequence.getOrDefault(group, -1L)) {
+                lastSequence.put(group, (long) committed[1]);
+                lastCommitted.put(group, committed[0]);
+            }
+            if (committed != null) {
+                settleSeed(group, lastCommitted.get(group));
+            }
+            double local = committed != null ? lastCommitted.get(group) + unapplied(group) : localBalance;
+            lastKnown.put(group, local);
+            return local;
+        }
+    }
+
+    /**
+     * A player in the group now has {@code balance} locally. The difference to the last
+     * known balance is queued as a delta. For a group not loaded yet, the first change is
+     * diffed against the committed balance by the flusher, so this never blocks on Redis.
+     */
+    public synchronized void record(String group, double balance) {
+        Double known = lastKnown.put(group, balance);
+        if (known == null) {
+            unseeded.put(group, balance);
+            return;
+        }
+        double delta = balance - known;
+        if (delta != 0.0D) {
+            pending.merge(group, delta, Double::sum);
+        }
+    }
+
+    /**
+     * Local view of every group this server tracks, handed to the next ledger across a reload.
+     */
+    public synchronized Map<String, Double> knownBalances() {
+        return new HashMap<>(lastKnown);
+    }
+
+    /**
+     * Drop what this server remembers about a group none of its players belong to anymore.
+     * Returns false and keeps everything while the group has changes not committed yet.
+     */
+    public synchronized boolean forget(String group) {
+        if (pending.containsKey(group) || unseeded.containsKey(group)) {
+            return false;
+        }
+        for (Transaction tx : unconfirmed) {
+            if (tx.group.equals(group)) {
+                return false;
+            }
+        }
+        lastKnown.remove(group);
+        lastSequence.remove(group);
+        lastCommitted.remove(group);
+        return true;
+    }
+
+    /**
+     * Committed balance announced by another server.
+     */
+    public void onCommitted(String group, double balance, long sequence) {
+        reconcile(group, balance, sequence);
+    }
+
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (this) {
+            if (!unconfirmed.isEmpty()) {
+                logger.warning(unconfirmed.size() + " balance changes could not be written to Redis");
+            }
+        }
+    }
+
+    private void flush() {
+        if (!seed()) {
+            return;
+        }
+        List<Transaction> batch;
+        synchronized (this) {
+            for (Map.Entry<String, Double> entry : pending.entrySet()) {
+                unconfirmed.add(new Transaction(entry.getKey(), entry.getValue(), txPrefix + txCounter.incrementAndGet()));
+            }
+            pending.clear();
+            if (unconfirmed.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(unconfirmed);
+        }
+
+        for (Transaction tx : batch) {
+            Object result = redis.execute(jedis -> jedis.eval(APPLY_SCRIPT,
+                List.of(balanceKey(tx.group), sequenceKey(tx.group), tx.key()),
+                List.of(String.valueOf(tx.delta), String.valueOf(TX_TTL_SECONDS))));
+            double[] committed = parse(result);
+            if (committed == null) {
+                // Unconfirmed transactions are retried with the same ID on the next flush
+                return;
+            }
+            synchronized (this) {
+                unconfirmed.remove(tx);
+            }
+            reconcile(tx.group, committed[0], (long) committed[1]);
+            listener.balanceCommitted(tx.group, committed[0], (long) committed[1]);
+        }
+    }
+
+    /**
+     * Turn the first change recorded for a group without a known balance into a delta against
+     * the committed balance, seeding the group with it if Redis has none. Returns false if
+     * Redis is unreachable; the change is kept for the next flush.
+     */
+    private boolean seed() {
+        Map<String, Double> observed;
+        synchronized (this) {
+            if (unseeded.isEmpty()) {
+                return true;
+            }
+            observed = new HashMap<>(unseeded);
+        }
+        for (Map.Entry<String, Double> entry : observed.entrySet()) {
+            String group = entry.getKey();
+            Object result = redis.execute(jedis -> jedis.eval(INIT_SCRIPT,
+                List.of(balanceKey(group), sequenceKey(group)), List.of(String.valueOf(entry.getValue()))));
+            double[] committed = parse(result);
+            if (committed == null) {
+                return false;
+            }
+            synchronized (this) {
+                Long last = lastSequence.get(group);
+                if (last == null || committed[1] > last) {
+                    lastSequence.put(group, (long) committed[1]);
+                    lastCommitted.put(group, committed[0]);
+                }
+                settleSeed(group, lastCommitted.get(group));
+            }
+        }
+        return true;
+    }
+
+    private void settleSeed(String group, double committed) {
+        Double observed = unseeded.remove(group);
+        if (observed != null && observed != committed) {
+            pending.merge(group, observed - committed, Double::sum);
+        }
+    }
+
+    private void reconcile(String group, double committed, long sequence) {
+        double local;
+        synchronized (this) {
+            Long last = lastSequence.get(group);
+            if (last == null || sequence > last) {
+                lastSequence.put(group, sequence);
+                lastCommitted.put(group, committed);
+            }
+            Double base = lastCommitted.get(group);
+            settleSeed(group, base);
+            // A newer commit from another server already contains our delta, so recompute from it
+            local = (base != null ? base : committed) + unapplied(group);
+            Double known = lastKnown.put(group, local);
+            if (known != null && Math.abs(known - local) < 1e-9) {
+                return;
+            }
+        }
+        listener.applyBalance(group, local);
+    }
+
+    private double unapplied(String group) {
+        double sum = pending.getOrDefault(group, 0.0D);
+        for (Transaction tx : unconfirmed) {
+            if (tx.group.equals(group)) {
+                sum += tx.delta;
+            }
+        }
+        return sum;
+    }
+
+    private double[] parse(Object result) {
+        if (!(result instanceof List<?> values) || values.size() < 2 || values.get(0) == null) {
+            return null;
+        }
+        try {
+            double balance = Double.parseDouble(asString(values.get(0)));
+            long sequence = values.get(1) != null ? Long.parseLong(asString(values.get(1))) : 0L;
+            return new double[] {balance, sequence};
+        } catch (NumberFormatException e) {
+            logger.warning("Unreadable ledger balance: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private static String balanceKey(String group) {
+        return "mis:{eco:" + group + "}:bal";
+    }
+
+    private static String sequenceKey(String group) {
+        return "mis:{eco:" + group + "}:seq";
+    }
+
+    private static final class Transaction {
+        final String group;
+        final double delta;
+        final String id;
+
+        Transaction(String group, double delta, String id) {
+            this.group = group;
+            this.delta = delta;
+            this.id = id;
+        }
+
+        String key() {
+            return "mis:{eco:" + group + "}:tx:" + id;
+        }
+    }
+
+    /**
+     * Callbacks run on the ledger or messaging thread.
+     */
+    public interface Listener {
+        /**
+         * The local view of a group's balance changed and should be applied to its online members.
+         */
+        void applyBalance(String group, double balance);
+
+        /**
+         * A delta from this server was committed; other servers should hear about it.
+         */
+        void balanceCommitted(String group, double balance, long sequence);
+    }
+}
@@ -1,17 +1,19 @@
 package net.opmasterleo.multiinvsync.redis;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.NbtUtils;
+import net.opmasterleo.multiinvsync.storage.InventoryCodec;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
+import net.opmasterleo.multiinvsync.storage.InventoryStore;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
 
 /**
  * Handles Redis storage and retrieval of player inventory data.
@@ -21,63 +23,66 @@ import net.minecraft.nbt.NbtUtils;
  * - misinv:player:{uuid}:xp - Experience data (level, total xp, progress)
  * - misinv:player:{uuid}:economy - Economy balance
  * - misinv:player:{uuid}:version - Version number to detect concurrent updates
+ * - misinv:player:{uuid}:archive - Server and time of the last cold-tier archive (long TTL)
  * - misinv:server:{serverId}:players - Set of players currently on this server
  * 
+ * In cluster mode per-player keys are hash-tagged so all of a player's keys share one slot
+ * and pipelines or multi-key commands on them stay valid:
+ * - mis:{uuid}:inv, mis:{uuid}:xp, mis:{uuid}:eco, mis:{uuid}:ver, mis:{uuid}:arc
+ * 
  * TTL: Keys expire after 24 hours of inactivity to prevent stale data.
+ * 
+ * With read replicas, snapshots are read from a replica and checked against a version from
+ * the primary (the one announced in an update message, or the small version key on join);
+ * a replica that has not caught up yet is skipped and the primary is read instead.
+ * Balances carry no version, so they are always read from the primary.
  */
-public class RedisInventoryStorage {
+public class RedisInventoryStorage implements InventoryStore {
     
     private final RedisConnectionManager redis;
     private final Logger logger;
-    private final Gson gson;
+    private final InventoryCodec codec;
     private final String keyPrefix = "mis";
     private final int ttlSeconds = 43200; // 12 hours (reduced for efficiency)
+    private final boolean hashTagged;
     
     public RedisInventoryStorage(RedisConnectionManager redis, Logger logger) {
         this.redis = redis;
         this.logger = logger;
-        this.gson = new GsonBuilder()
-            .disableHtmlEscaping()
-            .serializeNulls()
-            .create();
+        this.hashTagged = redis.isClusterMode();
+        this.codec = new InventoryCodec(logger);
     }
     
     /**
      * Save complete inventory snapshot to Redis with versioning.
      * Returns the new version number, or -1 if save failed.
      */
+    @Override
     public long saveInventory(UUID playerId, InventoryData data) {
         String inventoryKey = getInventoryKey(playerId);
         String versionKey = getVersionKey(playerId);
         String xpKey = getXpKey(playerId);
         
-        return redis.execute(jedis -> {
+        Long saved = redis.execute(jedis -> {
             try {
                 String currentVersion = jedis.get(versionKey);
                 long newVersion = currentVersion != null ? Long.parseLong(currentVersion) + 1 : 1;
                 
-                JsonObject root = new JsonObject();
-                root.addProperty("v", newVersion);
-                root.addProperty("t", System.currentTimeMillis());
-                root.add("i", serializeItems(data.mainInventory));
-                root.add("a", serializeItems(data.armorContents));
-                root.addProperty("o", serializeItem(data.offhand));
-                root.add("e", serializeItems(data.enderChest));
-                root.addProperty("c", serializeItem(data.cursor));
-                
-                var pipeline = jedis.pipelined();
-                pipeline.setex(inventoryKey, ttlSeconds, root.toString());
-                pipeline.setex(versionKey, ttlSeconds, String.valueOf(newVersion));
+                data.version = newVersion;
+                data.timestamp = System.currentTimeMillis();
+                String json = codec.encode(data);
                 
-                if (data.xpLevel >= 0) {
-                    JsonObject xpData = new JsonObject();
-                    xpData.addProperty("l", data.xpLevel);
-                    xpData.addProperty("x", data.xpTotal);
-                    xpData.addProperty("p", data.xpExp);
-                    pipeline.setex(xpKey, ttlSeconds, xpData.toString());
+                try (AbstractPipeline pipeline = jedis.pipelined()) {
+                    pipeline.setex(inventoryKey, ttlSeconds, json);
+                    pipeline.setex(versionKey, ttlSeconds, String.valueOf(newVersion));
+                    
+                    if (data.xpLevel >= 0) {
+                        pipeline.setex(xpKey, ttlSeconds, codec.encodeExperience(data));
+                    }
+                    
+                    pipeline.sync();
                 }
-                
-                pipeline.sync();
+                data.payload = json;
                 
                 logger.fine("Saved inventory for " + playerId + " (version: " + newVersion + ")");
                 return newVersion;
@@ -86,102 +91,148 @@ public class RedisInventoryStorage {
                 return -1L;
             }
         });
+        return saved != null ? saved : -1L;
     }
     
     /**
      * Load inventory from Redis.
      * Returns null if not found or corrupted.
      */
+    @Override
     public InventoryData loadInventory(UUID playerId) {
+        if (!redis.hasReplicas()) {
+            return loadFromPrimary(playerId);
+        }
+        // The version key is tiny, the snapshot is what is worth moving off the primary
+        String versionKey = getVersionKey(playerId);
+        String version = redis.pipelined(pipeline -> pipeline.get(versionKey));
+        return version != null ? loadInventory(playerId, Long.parseLong(version)) : loadFromPrimary(playerId);
+    }
+    
+    /**
+     * Read the snapshot from a replica if it already has {@code minVersion}, otherwise from the primary.
+     */
+    @Override
+    public InventoryData loadInventory(UUID playerId, long minVersion) {
+        if (redis.hasReplicas() && minVersion > 0) {
+            String inventoryKey = getInventoryKey(playerId);
+            String xpKey = getXpKey(playerId);
+            String[] stored = redis.readReplica(pipeline -> {
+                Response<String> inventory = pipeline.get(inventoryKey);
+                Response<String> xp = pipeline.get(xpKey);
+                return () -> new String[] { inventory.get(), xp.get() };
+            });
+            InventoryData data = decode(playerId, stored);
+            if (data != null && data.version >= minVersion) {
+                return data;
+            }
+            logger.fine("Replica behind for " + playerId + " (want version " + minVersion + "), reading primary");
+        }
+        return loadFromPrimary(playerId);
+    }
+    
+    private InventoryData loadFromPrimary(UUID playerId) {
         String inventoryKey = getInventoryKey(playerId);
         String xpKey = getXpKey(playerId);
         
-        return redis.execute(jedis -> {
-            try {
-                String inventoryJson = jedis.get(inventoryKey);
-                if (inventoryJson == null) {
-                    return null;
-                }
-                
-                JsonObject root = gson.fromJson(inventoryJson, JsonObject.class);
-                InventoryData data = new InventoryData();
-                data.version = root.get("v").getAsLong();
-                data.timestamp = root.get("t").getAsLong();
-                data.mainInventory = deserializeItems(root.getAsJsonArray("i"), 36);
-                data.armorContents = deserializeItems(root.getAsJsonArray("a"), 4);
-                data.offhand = deserializeItem(root.get("o"));
-                data.enderChest = deserializeItems(root.getAsJsonArray("e"), 27);
-                data.cursor = deserializeItem(root.get("c"));
-                
-                String xpJson = jedis.get(xpKey);
-                if (xpJson != null) {
-                    JsonObject xpData = gson.fromJson(xpJson, JsonObject.class);
-                    data.xpLevel = xpData.get("l").getAsInt();
-                    data.xpTotal = xpData.get("x").getAsInt();
-                    data.xpExp = xpData.get("p").getAsFloat();
-                }
-                
-                logger.fine("Loaded inventory for " + playerId + " (version: " + data.version + ")");
-                return data;
-            } catch (Exception e) {
-                logger.warning("Failed to load inventory for " + playerId + ": " + e.getMessage());
-                return null;
+        String[] stored;
+        if (redis.isClientSideCaching()) {
+            // Direct GETs so a recently read snapshot is served from the near-cache
+            stored = redis.execute(jedis -> new String[] { jedis.get(inventoryKey), jedis.get(xpKey) });
+        } else {
+            stored = redis.pipelined(pipeline -> {
+                Response<String> inventory = pipeline.get(inventoryKey);
+                Response<String> xp = pipeline.get(xpKey);
+                return () -> new String[] { inventory.get(), xp.get() };
+            });
+        }
+        return decode(playerId, stored);
+    }
+    
+    private InventoryData decode(UUID playerId, String[] stored) {
+        if (stored == null || stored[0] == null) {
+            return null;
+        }
+        
+        try {
+            InventoryData data = codec.decode(stored[0]);
+            
+            String xpJson = stored[1];
+            if (xpJson != null) {
+                codec.decodeExperience(data, xpJson);
             }
-        });
+            
+            logger.fine("Loaded inventory for " + playerId + " (version: " + data.version + ")");
+            return data;
+        } catch (Exception e) {
+            logger.warning("Failed to load inventory for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    @Override
+    public InventoryData decodeInventory(String json) {
+        return codec.decode(json);
     }
     
     /**
      * Save economy balance to Redis.
      */
-    public void saveEconomy(UUID playerId, double balance) {
+    @Override
+    public boolean saveEconomy(UUID playerId, double balance) {
         String economyKey = getEconomyKey(playerId);
-        redis.executeVoid(jedis -> {
-            jedis.set(economyKey, String.valueOf(balance));
-            jedis.expire(economyKey, ttlSeconds);
-            return null;
-        });
+        return redis.pipelined(pipeline -> pipeline.setex(economyKey, ttlSeconds, String.valueOf(balance))) != null;
     }
     
     /**
      * Load economy balance from Redis.
      */
+    @Override
     public Double loadEconomy(UUID playerId) {
         String economyKey = getEconomyKey(playerId);
-        return redis.execute(jedis -> {
-            String balance = jedis.get(economyKey);
-            return balance != null ? Double.parseDouble(balance) : null;
-        });
+        String balance = redis.isClientSideCaching()
+            ? redis.execute(jedis -> jedis.get(economyKey))
+            : redis.pipelined(pipeline -> pipeline.get(economyKey));
+        return balance != null ? Double.parseDouble(balance) : null;
     }
     
     /**
      * Mark player as active on this server.
      */
+    @Override
     public void registerPlayer(UUID playerId, String serverId) {
         String serverPlayersKey = getServerPlayersKey(serverId);
-        redis.executeVoid(jedis -> {
-            jedis.sadd(serverPlayersKey, playerId.toString());
-            jedis.expire(serverPlayersKey, 300); // 5 minutes
-            return null;
+        redis.pipelinedVoid(pipeline -> {
+            pipeline.sadd(serverPlayersKey, playerId.toString());
+            return pipeline.expire(serverPlayersKey, 300); // 5 minutes
         });
     }
     
     /**
      * Remove player from this server's active set.
      */
+    @Override
     public void unregisterPlayer(UUID playerId, String serverId) {
         String serverPlayersKey = getServerPlayersKey(serverId);
-        redis.executeVoid(jedis -> {
-            jedis.srem(serverPlayersKey, playerId.toString());
-            return null;
-        });
+        redis.pipelinedVoid(pipeline -> pipeline.srem(serverPlayersKey, playerId.toString()));
     }
     
     /**
      * Check if player is active on another server.
      */
+    @Override
     public boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId) {
-        return redis.execute(jedis -> {
-            var keys = jedis.keys(keyPrefix + ":server:*:players");
+        Boolean active = redis.execute(jedis -> {
+            Collection<String> keys;
+            if (hashTagged) {
+                // KEYS only sees one node of a cluster, so enumerate registered servers instead
+                keys = new ArrayList<>();
+                for (String server : jedis.hkeys(ServerIdRegistry.BY_NAME_KEY)) {
+                    keys.add(getServerPlayersKey(server));
+                }
+            } else {
+                keys = jedis.keys(keyPrefix + ":server:*:players");
+            }
             for (String key : keys) {
                 if (key.contains(currentServerId)) continue;
                 if (jedis.sismember(key, playerId.toString())) {
@@ -190,11 +241,13 @@ public class RedisInventoryStorage {
             }
             return false;
         });
+        return active != null && active;
     }
     
     /**
      * Delete all data for a player (for cleanup/reset).
      */
+    @Override
     public void deletePlayer(UUID playerId) {
         redis.executeVoid(jedis -> {
             jedis.del(
@@ -207,90 +260,224 @@ public class RedisInventoryStorage {
         });
     }
     
-    private String getInventoryKey(UUID playerId) {
-        return keyPrefix + ":player:" + playerId + ":inventory";
+    /**
+     * Load and register all players in one pipeline: GETs for every snapshot, XP and
+     * balance plus a single SADD, so a full server costs one round trip.
+     */
+    @Override
+    public Map<UUID, Loaded> loadAll(Collection<UUID> playerIds, String serverId, boolean withEconomy) {
+        Map<UUID, Loaded> loaded = new HashMap<>();
+        if (playerIds.isEmpty()) {
+            return loaded;
+        }
+        List<UUID> ids = new ArrayList<>(playerIds);
+        String serverPlayersKey = getServerPlayersKey(serverId);
+        String[] members = new String[ids.size()];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = ids.get(i).toString();
+        }
+        
+        // With replicas the primary only returns versions and balances, the snapshots come from a replica
+        boolean replicated = redis.hasReplicas();
+        String[][] stored = redis.pipelined(pipeline -> {
+            List<Response<String>> responses = new ArrayList<>(ids.size() * 3);
+            for (UUID playerId : ids) {
+                responses.add(pipeline.get(replicated ? getVersionKey(playerId) : getInventoryKey(playerId)));
+                responses.add(replicated ? null : pipeline.get(getXpKey(playerId)));
+                responses.add(withEconomy ? pipeline.get(getEconomyKey(playerId)) : null);
+            }
+            pipeline.sadd(serverPlayersKey, members);
+            pipeline.expire(serverPlayersKey, 300);
+            return () -> {
+                String[][] values = new String[ids.size()][3];
+                for (int i = 0; i < responses.size(); i++) {
+                    Response<String> response = responses.get(i);
+                    values[i / 3][i % 3] = response != null ? response.get() : null;
+                }
+                return values;
+            };
+        });
+        
+        String[][] copies = replicated && stored != null ? redis.readReplica(pipeline -> {
+            List<Response<String>> responses = new ArrayList<>(ids.size() * 2);
+            for (UUID playerId : ids) {
+                responses.add(pipeline.get(getInventoryKey(playerId)));
+                responses.add(pipeline.get(getXpKey(playerId)));
+            }
+            return () -> {
+                String[][] values = new String[ids.size()][];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = new String[] { responses.get(i * 2).get(), responses.get(i * 2 + 1).get() };
+                }
+                return values;
+            };
+        }) : null;
+        
+        for (int i = 0; i < ids.size(); i++) {
+            UUID playerId = ids.get(i);
+            InventoryData data = null;
+            Double balance = null;
+            if (stored != null && replicated) {
+                if (stored[i][0] != null) {
+                    long version = Long.parseLong(stored[i][0]);
+                    data = copies != null ? decode(playerId, copies[i]) : null;
+                    if (data == null || data.version < version) {
+                        data = loadFromPrimary(playerId);
+                    }
+                }
+                balance = stored[i][2] != null ? Double.parseDouble(stored[i][2]) : null;
+            } else if (stored != null) {
+                try {
+                    if (stored[i][0] != null) {
+                        data = codec.decode(stored[i][0]);
+                        if (stored[i][1] != null) {
+                            codec.decodeExperience(data, stored[i][1]);
+                        }
+                    }
+                    balance = stored[i][2] != null ? Double.parseDouble(stored[i][2]) : null;
+                } catch (Exception e) {
+                    logger.warning("Failed to load inventory for " + playerId + ": " + e.getMessage());
+                }
+            }
+            loaded.put(playerId, new Loaded(data, balance));
+        }
+        logger.fine("Bulk loaded " + ids.size() + " players");
+        return loaded;
     }
     
-    private String getVersionKey(UUID playerId) {
-        return keyPrefix + ":player:" + playerId + ":version";
+    /**
+     * Save all snapshots in two pipelines: one reading every current version, one writing the
+     * snapshots, XP, balances and presence changes.
+     */
+    @Override
+    public Map<UUID, Long> saveAll(Map<UUID, InventoryData> snapshots, Map<UUID, Double> balances, String leavingServerId) {
+        Map<UUID, Long> versions = new HashMap<>();
+        if (snapshots.isEmpty()) {
+            return versions;
+        }
+        List<UUID> ids = new ArrayList<>(snapshots.keySet());
+        
+        String[] current = redis.pipelined(pipeline -> {
+            List<Response<String>> responses = new ArrayList<>(ids.size());
+            for (UUID playerId : ids) {
+                responses.add(pipeline.get(getVersionKey(playerId)));
+            }
+            return () -> {
+                String[] values = new String[ids.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = responses.get(i).get();
+                }
+                return values;
+            };
+        });
+        if (current == null) {
+            for (UUID playerId : ids) {
+                versions.put(playerId, -1L);
+            }
+            return versions;
+        }
+        
+        long now = System.currentTimeMillis();
+        Map<UUID, Long> pending = new HashMap<>();
+        Boolean written = redis.pipelined(pipeline -> {
+            for (int i = 0; i < ids.size(); i++) {
+                UUID playerId = ids.get(i);
+                InventoryData data = snapshots.get(playerId);
+                long newVersion = current[i] != null ? Long.parseLong(current[i]) + 1 : 1;
+                data.version = newVersion;
+                data.timestamp = now;
+                data.payload = codec.encode(data);
+                pipeline.setex(getInventoryKey(playerId), ttlSeconds, data.payload);
+                pipeline.setex(getVersionKey(playerId), ttlSeconds, String.valueOf(newVersion));
+                if (data.xpLevel >= 0) {
+                    pipeline.setex(getXpKey(playerId), ttlSeconds, codec.encodeExperience(data));
+                }
+                Double balance = balances.get(playerId);
+                if (balance != null) {
+                    pipeline.setex(getEconomyKey(playerId), ttlSeconds, String.valueOf(balance));
+                }
+                pending.put(playerId, newVersion);
+            }
+            if (leavingServerId != null) {
+                String[] members = new String[ids.size()];
+                for (int i = 0; i < members.length; i++) {
+                    members[i] = ids.get(i).toString();
+                }
+                pipeline.srem(getServerPlayersKey(leavingServerId), members);
+            }
+            return () -> Boolean.TRUE;
+        });
+        
+        for (UUID playerId : ids) {
+            versions.put(playerId, written != null ? pending.getOrDefault(playerId, -1L) : -1L);
+        }
+        logger.fine("Bulk saved " + ids.size() + " players");
+        return versions;
     }
     
-    private String getXpKey(UUID playerId) {
-        return keyPrefix + ":player:" + playerId + ":xp";
+    /**
+     * Put an archived snapshot back under its original version.
+     * Does nothing and returns false if a version was written in the meantime; null if Redis failed.
+     */
+    public Boolean restoreInventory(UUID playerId, String json, long version) {
+        String inventoryKey = getInventoryKey(playerId);
+        String versionKey = getVersionKey(playerId);
+        return redis.execute(jedis -> {
+            if (jedis.set(versionKey, String.valueOf(version), SetParams.setParams().nx().ex(ttlSeconds)) == null) {
+                return false;
+            }
+            jedis.setex(inventoryKey, ttlSeconds, json);
+            return true;
+        });
     }
     
-    private String getEconomyKey(UUID playerId) {
-        return keyPrefix + ":player:" + playerId + ":economy";
+    /**
+     * Record which server archived the player's last snapshot and when, so other servers
+     * never rehydrate an older local copy.
+     */
+    public void markArchived(UUID playerId, String serverId, long timestamp, long retentionSeconds) {
+        String archiveKey = getArchiveKey(playerId);
+        redis.pipelinedVoid(pipeline -> pipeline.setex(archiveKey, retentionSeconds, serverId + "|" + timestamp));
     }
     
-    private String getServerPlayersKey(String serverId) {
-        return keyPrefix + ":server:" + serverId + ":players";
+    /**
+     * Returns "serverId|timestamp" of the last archive, or null if none is recorded.
+     */
+    public String loadArchiveMarker(UUID playerId) {
+        String archiveKey = getArchiveKey(playerId);
+        return redis.pipelined(pipeline -> pipeline.get(archiveKey));
     }
     
-    private JsonArray serializeItems(List<net.minecraft.world.item.ItemStack> items) {
-        JsonArray array = new JsonArray();
-        for (net.minecraft.world.item.ItemStack item : items) {
-            array.add(gson.toJsonTree(serializeItem(item)));
-        }
-        return array;
+    /**
+     * Whether a key holds player data that may be kept in the client-side cache.
+     * Version and presence keys change too often to be worth tracking.
+     */
+    public static boolean isCacheableKey(String key) {
+        return key.endsWith(":inventory") || key.endsWith(":inv")
+            || key.endsWith(":xp") || key.endsWith(":economy") || key.endsWith(":eco");
     }
     
-    private String serializeItem(net.minecraft.world.item.ItemStack item) {
-        if (item == null || item.isEmpty()) {
-            return "";
-        }
-        try {
-            CompoundTag tag = new CompoundTag();
-            item.save(null, tag);
-            return NbtUtils.structureToSnbt(tag);
-        } catch (Exception e) {
-            logger.warning("Failed to serialize item: " + e.getMessage());
-            return "";
-        }
+    private String getInventoryKey(UUID playerId) {
+        return hashTagged ? keyPrefix + ":{" + playerId + "}:inv" : keyPrefix + ":player:" + playerId + ":inventory";
     }
     
-    private List<net.minecraft.world.item.ItemStack> deserializeItems(JsonArray array, int expectedSize) {
-        List<net.minecraft.world.item.ItemStack> items = new ArrayList<>();
-        for (int i = 0; i < expectedSize; i++) {
-            if (i < array.size()) {
-                items.add(deserializeItem(array.get(i)));
-            } else {
-                items.add(net.minecraft.world.item.ItemStack.EMPTY);
-            }
-        }
-        return items;
+    private String getVersionKey(UUID playerId) {
+        return hashTagged ? keyPrefix + ":{" + playerId + "}:ver" : keyPrefix + ":player:" + playerId + ":version";
     }
     
-    private net.minecraft.world.item.ItemStack deserializeItem(com.google.gson.JsonElement element) {
-        if (element == null || !element.isJsonPrimitive()) {
-            return net.minecraft.world.item.ItemStack.EMPTY;
-        }
-        String snbt = element.getAsString();
-        if (snbt.isEmpty()) {
-            return net.minecraft.world.item.ItemStack.EMPTY;
-        }
-        try {
-            CompoundTag tag = NbtUtils.snbtToStructure(snbt);
-            return net.minecraft.world.item.ItemStack.parseOptional(null, tag);
-        } catch (Exception e) {
-            logger.warning("Failed to deserialize item: " + e.getMessage());
-            return net.minecraft.world.item.ItemStack.EMPTY;
-        }
+    private String getXpKey(UUID playerId) {
+        return hashTagged ? keyPrefix + ":{" + playerId + "}:xp" : keyPrefix + ":player:" + playerId + ":xp";
     }
     
-    /**
-     * Data class for inventory snapshots.
-     */
-    public static class InventoryData {
-        public long version;
-        public long timestamp;
-        public List<net.minecraft.world.item.ItemStack> mainInventory = new ArrayList<>();
-        public List<net.minecraft.world.item.ItemStack> armorContents = new ArrayList<>();
-        public net.minecraft.world.item.ItemStack offhand;
-        public List<net.minecraft.world.item.ItemStack> enderChest = new ArrayList<>();
-        public net.minecraft.world.item.ItemStack cursor;
-        public int xpLevel = -1;
-        public int xpTotal = -1;
-        public float xpExp = 0.0f;
+    private String getEconomyKey(UUID playerId) {
+        return hashTagged ? keyPrefix + ":{" + playerId + "}:eco" : keyPrefix + ":player:" + playerId + ":economy";
+    }
+    
+    private String getArchiveKey(UUID playerId) {
+        return hashTagged ? keyPrefix + ":{" + playerId + "}:arc" : keyPrefix + ":player:" + playerId + ":archive";
+    }
+    
+    private String getServerPlayersKey(String serverId) {
+        return keyPrefix + ":server:" + serverId + ":players";
     }
 }
@@ -1,39 +1,95 @@
 package net.opmasterleo.multiinvsync.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-
+import net.opmasterleo.multiinvsync.storage.ConnectionState;
+import net.opmasterleo.multiinvsync.storage.MessageBus;
+import net.opmasterleo.multiinvsync.storage.MessageType;
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
 
-public class RedisPubSubManager {
+/**
+ * Messaging over Redis Pub/Sub, or Redis Streams when configured.
+ *
+ * Each server subscribes to its own channel and the global channel. Team channels are not
+ * subscribed one by one: a single pattern subscription receives every team channel and
+ * messages for teams without local members are dropped by channel name before decoding.
+ * Joining or leaving a team therefore only changes a local set and never sends a command
+ * on the subscriber connection.
+ */
+public class RedisPubSubManager implements MessageBus {
+    
+    private static final long HEALTH_CHECK_SECONDS = 5L;
+    private static final long UNBATCHED_RETRY_MILLIS = 1000L;
+    private static final String TEAM_CHANNEL_PREFIX = "mis:t:";
+    private static final byte[] TEAM_PATTERN = (TEAM_CHANNEL_PREFIX + "*").getBytes(StandardCharsets.UTF_8);
+    private static final long PONG_TIMEOUT_MILLIS = 15000L;
     
     private final RedisConnectionManager redis;
     private final Logger logger;
-    private final Gson gson;
+    private final ServerIdRegistry serverIds;
     private final ExecutorService executor;
     private final String serverId;
     private final String channelGlobal;
     private final String channelServer;
     
-    private Jedis subscriberConnection;
-    private MessageSubscriber subscriber;
+    private final boolean useStreams;
+    private final long streamMaxLength;
+    private final int timeout;
+    private final long batchIntervalMillis;
+    private final Set<String> teamChannels = ConcurrentHashMap.newKeySet();
+    private final ReconnectBackoff backoff = new ReconnectBackoff(500L, 30000L);
+    private final AtomicLong reconnectCount = new AtomicLong();
+    
+    private volatile Jedis subscriberConnection;
+    private volatile MessageSubscriber subscriber;
+    private RedisStreamTransport streamTransport;
+    private OutboundBatcher batcher;
+    private ScheduledExecutorService watchdog;
+    private Consumer<SyncMessage> messageHandler;
+    private Runnable reconnectListener;
+    private volatile ConnectionState state = ConnectionState.STOPPED;
+    private volatile long lastPong;
     private volatile boolean running = false;
     
     public RedisPubSubManager(RedisConnectionManager redis, Logger logger, String serverId) {
+        this(redis, logger, serverId, false, 0L, 0, 0L);
+    }
+    
+    /**
+     * @param useStreams deliver messages through capped Redis Streams instead of PUBLISH/SUBSCRIBE
+     * @param streamMaxLength approximate MAXLEN applied to every stream
+     * @param timeout connection timeout, used to bound blocking stream reads
+     * @param batchIntervalMillis collect outgoing messages for this long and send them in one pipeline; 0 sends immediately
+     */
+    public RedisPubSubManager(RedisConnectionManager redis, Logger logger, String serverId,
+                              boolean useStreams, long streamMaxLength, int timeout, long batchIntervalMillis) {
         this.redis = redis;
         this.logger = logger;
-        this.gson = new Gson();
+        this.serverIds = new ServerIdRegistry(redis, logger, serverId);
         this.serverId = serverId;
         this.channelGlobal = "mis:g";
         this.channelServer = "mis:u:" + serverId;
+        this.useStreams = useStreams;
+        this.streamMaxLength = streamMaxLength;
+        this.timeout = timeout;
+        this.batchIntervalMillis = batchIntervalMillis;
         this.executor = Executors.newSingleThreadExecutor(r -> {
             Thread t = new Thread(r, "Redis-PubSub-Subscriber");
             t.setDaemon(true);
@@ -44,254 +100,497 @@ public class RedisPubSubManager {
     /**
      * Start listening for messages on all relevant channels.
      */
-    public void start(Consumer<RedisMessage> messageHandler) {
+    @Override
+    public void start(Consumer<SyncMessage> messageHandler) {
         if (running) {
             logger.warning("Pub/Sub already running");
             return;
         }
         
         running = true;
-        subscriber = new MessageSubscriber(messageHandler);
+        this.messageHandler = messageHandler;
+        serverIds.getLocalId();
         
-        executor.submit(() -> {
-            try {
-                subscriberConnection = redis.getResource();
-                logger.info("Subscribing to Redis channels...");
-                
-                subscriberConnection.subscribe(subscriber, channelServer, channelGlobal);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Redis Pub/Sub connection failed", e);
-                running = false;
+        // Without batching the batcher only holds messages that failed to send, for retry and replay
+        batcher = new OutboundBatcher(logger, batchIntervalMillis > 0 ? batchIntervalMillis : UNBATCHED_RETRY_MILLIS, this::sendBatch);
+        redis.addFailoverListener(this::onFailover);
+        
+        if (useStreams) {
+            streamTransport = new RedisStreamTransport(redis, logger, serverId, streamMaxLength, timeout, this::dispatch);
+            streamTransport.addChannel(channelServer);
+            streamTransport.addChannel(channelGlobal);
+            // Teams subscribed before start were only recorded locally
+            for (String channel : teamChannels) {
+                streamTransport.addChannel(channel);
             }
+            streamTransport.start();
+            return;
+        }
+        
+        state = ConnectionState.CONNECTING;
+        executor.submit(this::superviseSubscription);
+        
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-PubSub-Watchdog");
+            t.setDaemon(true);
+            return t;
         });
+        watchdog.scheduleAtFixedRate(this::checkSubscriberHealth, HEALTH_CHECK_SECONDS, HEALTH_CHECK_SECONDS, TimeUnit.SECONDS);
         
         logger.info("Redis Pub/Sub started for server: " + serverId);
     }
     
+    /**
+     * Called after the subscriber recovers from a dropped connection.
+     * Messages published while disconnected are lost with Pub/Sub, so the owner should resync.
+     */
+    @Override
+    public void setReconnectListener(Runnable reconnectListener) {
+        this.reconnectListener = reconnectListener;
+    }
+    
+    /**
+     * Keeps a subscriber connection alive for as long as messaging runs.
+     * Each attempt subscribes to the server and global channels plus the team pattern;
+     * failures are retried with jittered exponential backoff instead of giving up.
+     */
+    private void superviseSubscription() {
+        while (running) {
+            List<String> channels = currentChannels();
+            MessageSubscriber attempt = new MessageSubscriber();
+            try (Jedis connection = redis.getResource()) {
+                subscriberConnection = connection;
+                subscriber = attempt;
+                lastPong = System.currentTimeMillis();
+                logger.info("Subscribing to Redis channels...");
+                
+                connection.subscribe(attempt, toBytes(channels));
+            } catch (Exception e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Redis Pub/Sub connection lost", e);
+                }
+            } finally {
+                subscriberConnection = null;
+            }
+            
+            if (!running) {
+                break;
+            }
+            
+            state = ConnectionState.RECONNECTING;
+            long delay = backoff.nextDelay();
+            logger.warning("Reconnecting Redis Pub/Sub in " + delay + "ms");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            reconnectCount.incrementAndGet();
+        }
+        state = ConnectionState.STOPPED;
+    }
+    
+    /**
+     * The sentinels promoted a new master. Readers may still be attached to the old one, so
+     * they are dropped and reconnect to the new master, which resyncs like any other reconnect;
+     * messages held back during the switch are sent right away.
+     */
+    private void onFailover() {
+        if (!running) {
+            return;
+        }
+        if (streamTransport != null) {
+            streamTransport.reconnect();
+        } else {
+            Jedis connection = subscriberConnection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        if (batcher != null) {
+            batcher.replay();
+        }
+    }
+    
+    private List<String> currentChannels() {
+        List<String> channels = new ArrayList<>(2);
+        channels.add(channelServer);
+        channels.add(channelGlobal);
+        return channels;
+    }
+    
+    /**
+     * A half-open TCP connection never errors on its own, so ping the subscriber
+     * and force a reconnect when pongs stop arriving.
+     */
+    private void checkSubscriberHealth() {
+        MessageSubscriber current = subscriber;
+        if (!running || state != ConnectionState.CONNECTED || current == null || !current.isSubscribed()) {
+            return;
+        }
+        if (System.currentTimeMillis() - lastPong > PONG_TIMEOUT_MILLIS) {
+            logger.warning("Redis Pub/Sub stopped responding, forcing reconnect");
+            Jedis connection = subscriberConnection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return;
+        }
+        try {
+            current.ping();
+        } catch (Exception e) {
+            logger.fine("Redis Pub/Sub ping failed: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public ConnectionState getConnectionState() {
+        return streamTransport != null ? streamTransport.getConnectionState() : state;
+    }
+    
+    @Override
+    public long getReconnectCount() {
+        return streamTransport != null ? streamTransport.getReconnectCount() : reconnectCount.get();
+    }
+    
     /**
      * Publish inventory update to target server.
      */
+    @Override
     public void publishInventoryUpdate(UUID playerId, String targetServerId, long version) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "INVENTORY_UPDATE");
-        message.addProperty("playerId", playerId.toString());
-        message.addProperty("sourceServer", serverId);
-        message.addProperty("targetServer", targetServerId);
-        message.addProperty("version", version);
-        message.addProperty("timestamp", System.currentTimeMillis());
-        publish("mis:u:" + targetServerId, message.toString());
+        int targetId = serverIds.lookup(targetServerId);
+        if (targetId < 0) {
+            logger.fine("Unknown target server " + targetServerId + ", inventory update not sent");
+            return;
+        }
+        publish("mis:u:" + targetServerId, encode(MessageType.INVENTORY_UPDATE, playerId, targetId, version, null, null, null));
     }
 
-    public void broadcastInventoryUpdate(UUID playerId, long version, String teamId) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "INVENTORY_UPDATE");
-        message.addProperty("playerId", playerId.toString());
-        message.addProperty("sourceServer", serverId);
-        message.addProperty("version", version);
-        message.addProperty("timestamp", System.currentTimeMillis());
-        if (teamId != null) {
-            message.addProperty("teamId", teamId);
-            publish("mis:t:" + teamId, message.toString());
-        } else {
-            publish(channelGlobal, message.toString());
+    /**
+     * Broadcast an inventory change. When {@code payload} is non-null the serialized
+     * snapshot travels with the message so receivers can skip the follow-up GET.
+     */
+    @Override
+    public void broadcastInventoryUpdate(UUID playerId, long version, String teamId, String payload) {
+        byte[] payloadBytes = payload != null ? payload.getBytes(StandardCharsets.UTF_8) : null;
+        publishToGroup(teamId, encode(MessageType.INVENTORY_UPDATE, playerId, -1, version, teamId, null, payloadBytes));
+    }
+    
+    @Override
+    public void requestRehydrate(UUID playerId, String archivingServerId) {
+        int targetId = serverIds.lookup(archivingServerId);
+        if (targetId < 0) {
+            logger.fine("Unknown archiving server " + archivingServerId + ", rehydrate request not sent");
+            return;
         }
+        publish("mis:u:" + archivingServerId, encode(MessageType.REHYDRATE_REQUEST, playerId, targetId, 0L, null, null, null));
     }
     
     /**
      * Publish server switch notification (player moving from source to target server).
      */
+    @Override
     public void publishServerSwitch(UUID playerId, String sourceServerId, String targetServerId) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "SERVER_SWITCH");
-        message.addProperty("playerId", playerId.toString());
-        message.addProperty("sourceServer", sourceServerId);
-        message.addProperty("targetServer", targetServerId);
-        message.addProperty("timestamp", System.currentTimeMillis());
+        int targetId = serverIds.lookup(targetServerId);
+        if (targetId < 0) {
+            logger.fine("Unknown target server " + targetServerId + ", switch notification not sent");
+            return;
+        }
         
         // Notify target server
         String channel = "mis:u:" + targetServerId;
-        publish(channel, message.toString());
+        publish(channel, encode(MessageType.SERVER_SWITCH, playerId, targetId, 0L, null, null, null));
+    }
+    
+    @Override
+    public void requestHandoff(UUID playerId) {
+        publish(channelGlobal, encode(MessageType.HANDOFF_REQUEST, playerId, -1, 0L, null, null, null));
+    }
+    
+    @Override
+    public void sendHandoff(UUID playerId, String targetServerId, long version, String payload, Double balance) {
+        int targetId = serverIds.lookup(targetServerId);
+        if (targetId < 0) {
+            logger.fine("Unknown target server " + targetServerId + ", handoff not sent");
+            return;
+        }
+        publish("mis:u:" + targetServerId, encode(MessageType.HANDOFF, playerId, targetId, version, null, balance,
+            payload.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    @Override
+    public void acknowledgeHandoff(UUID playerId, String sourceServerId, long version) {
+        int sourceId = serverIds.lookup(sourceServerId);
+        if (sourceId < 0) {
+            return;
+        }
+        publish("mis:u:" + sourceServerId, encode(MessageType.HANDOFF_ACK, playerId, sourceId, version, null, null, null));
     }
     
     /**
      * Broadcast player death to all servers (for shared death feature).
      */
+    @Override
     public void broadcastPlayerDeath(UUID playerId, String teamId) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "PLAYER_DEATH");
-        message.addProperty("playerId", playerId.toString());
-        message.addProperty("sourceServer", serverId);
-        message.addProperty("timestamp", System.currentTimeMillis());
-        if (teamId != null) {
-            message.addProperty("teamId", teamId);
-            publish("mis:t:" + teamId, message.toString());
-        } else {
-            publish(channelGlobal, message.toString());
-        }
+        publishToGroup(teamId, encode(MessageType.PLAYER_DEATH, playerId, -1, 0L, teamId, null, null));
     }
     
     /**
      * Broadcast economy update.
      */
-    public void broadcastEconomyUpdate(UUID playerId, double balance, String teamId) {
-        JsonObject message = new JsonObject();
-        message.addProperty("type", "ECONOMY_UPDATE");
-        message.addProperty("playerId", playerId.toString());
-        message.addProperty("sourceServer", serverId);
-        message.addProperty("balance", balance);
-        message.addProperty("timestamp", System.currentTimeMillis());
-        if (teamId != null) {
-            message.addProperty("teamId", teamId);
-            publish("mis:t:" + teamId, message.toString());
-        } else {
-            publish(channelGlobal, message.toString());
+    @Override
+    public void broadcastEconomyUpdate(UUID playerId, double balance, String teamId, long version) {
+        publishToGroup(teamId, encode(MessageType.ECONOMY_UPDATE, playerId, -1, version, teamId, balance, null));
+    }
+    
+    @Override
+    public void announcePresence(String teamId, boolean present) {
+        publishToGroup(teamId, encode(MessageType.PRESENCE, UUID.fromString(teamId), -1, present ? 1L : 0L, teamId, null, null));
+    }
+    
+    private void publishToGroup(String teamId, byte[] message) {
+        publish(teamId != null ? TEAM_CHANNEL_PREFIX + teamId : channelGlobal, message);
+    }
+    
+    private byte[] encode(MessageType type, UUID playerId, int targetId, long version,
+                          String teamId, Double balance, byte[] payload) {
+        int sourceId = serverIds.getLocalId();
+        if (sourceId < 0) {
+            return null;
         }
+        UUID team = teamId != null ? UUID.fromString(teamId) : null;
+        return MessageCodec.encode(type, playerId, sourceId, targetId, version,
+            System.currentTimeMillis(), team, balance, payload);
     }
     
     /**
-     * Subscribe to team-specific channel (for team-based sync mode).
+     * Accept messages for a team (for team-based sync mode).
+     * With Pub/Sub the team pattern is already subscribed, so this only updates the local filter.
      */
+    @Override
     public void subscribeToTeam(String teamId) {
-        if (!running || subscriber == null) {
-            logger.warning("Cannot subscribe - messaging not active");
+        String channel = TEAM_CHANNEL_PREFIX + teamId;
+        if (running && streamTransport != null) {
+            streamTransport.addChannel(channel);
             return;
         }
-        
-        executor.submit(() -> {
-            try {
-                subscriber.subscribe("mis:t:" + teamId);
-                logger.info("Subscribed to team: " + teamId);
-            } catch (Exception e) {
-                logger.warning("Could not subscribe to team: " + teamId);
-            }
-        });
+        if (teamChannels.add(channel)) {
+            logger.fine("Receiving messages for team: " + teamId);
+        }
     }
     
     /**
-     * Unsubscribe from team channel.
+     * Stop accepting messages for a team.
      */
+    @Override
     public void unsubscribeFromTeam(String teamId) {
-        if (!running || subscriber == null) {
+        String channel = TEAM_CHANNEL_PREFIX + teamId;
+        if (running && streamTransport != null) {
+            streamTransport.removeChannel(channel);
             return;
         }
-        
-        executor.submit(() -> {
-            try {
-                subscriber.unsubscribe("mis:t:" + teamId);
-                logger.info("Unsubscribed from team: " + teamId);
-            } catch (Exception e) {
-                logger.warning("Could not unsubscribe from team: " + teamId);
-            }
-        });
+        if (teamChannels.remove(channel)) {
+            logger.fine("No longer receiving messages for team: " + teamId);
+        }
     }
     
     /**
      * Shutdown Pub/Sub and close connections.
      */
+    @Override
     public void shutdown() {
         running = false;
         
-        if (subscriber != null && subscriber.isSubscribed()) {
-            subscriber.unsubscribe();
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        
+        if (streamTransport != null) {
+            streamTransport.shutdown();
+        }
+        
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        
+        MessageSubscriber current = subscriber;
+        if (current != null && current.isSubscribed()) {
+            current.unsubscribe();
         }
         
-        if (subscriberConnection != null && subscriberConnection.isConnected()) {
-            subscriberConnection.close();
+        Jedis connection = subscriberConnection;
+        if (connection != null && connection.isConnected()) {
+            connection.close();
         }
         
         executor.shutdown();
+        state = ConnectionState.STOPPED;
         logger.info("Redis messaging stopped");
     }
     
     /**
      * Publish message to channel.
      */
-    private void publish(String channel, String message) {
-        redis.executeVoid(jedis -> {
-            jedis.publish(channel, message);
-            logger.fine("Published to " + channel + ": " + message);
-            return null;
+    private void publish(String channel, byte[] message) {
+        if (message == null) {
+            logger.fine("Server ID not registered yet, message to " + channel + " dropped");
+            return;
+        }
+        OutboundBatcher outbound = batcher;
+        if (outbound == null) {
+            sendBatch(Map.of(channel, List.of(message)));
+            return;
+        }
+        // Unbatched messages go out at once unless older ones are still held, which they must not overtake
+        if (batchIntervalMillis > 0 || outbound.hasPending() || !sendBatch(Map.of(channel, List.of(message)))) {
+            outbound.enqueue(channel, message);
+        }
+    }
+    
+    /**
+     * Send one flush interval's worth of messages in a single pipeline.
+     * Channels with several messages get one batch frame instead of one PUBLISH/XADD each.
+     * PUBLISH has no key for a cluster pipeline to route by, so in cluster mode frames are
+     * published one by one. Returns false if the batch was not sent.
+     */
+    private boolean sendBatch(Map<String, List<byte[]>> batch) {
+        Boolean sent = redis.execute(jedis -> {
+            if (streamTransport == null && redis.isClusterMode()) {
+                for (Map.Entry<String, List<byte[]>> entry : batch.entrySet()) {
+                    jedis.publish(entry.getKey().getBytes(StandardCharsets.UTF_8), toFrame(entry.getValue()));
+                }
+            } else {
+                try (AbstractPipeline pipeline = jedis.pipelined()) {
+                    for (Map.Entry<String, List<byte[]>> entry : batch.entrySet()) {
+                        byte[] frame = toFrame(entry.getValue());
+                        if (streamTransport != null) {
+                            streamTransport.append(pipeline, entry.getKey(), frame);
+                        } else {
+                            pipeline.publish(entry.getKey().getBytes(StandardCharsets.UTF_8), frame);
+                        }
+                    }
+                    pipeline.sync();
+                }
+            }
+            logger.fine("Published batch to " + batch.size() + " channel(s)");
+            return Boolean.TRUE;
         });
+        return sent != null;
+    }
+    
+    private byte[] toFrame(List<byte[]> messages) {
+        return messages.size() == 1 ? messages.get(0) : MessageCodec.encodeBatch(messages);
+    }
+    
+    /**
+     * Decode a raw frame from either transport and hand each message to the handler.
+     */
+    private void dispatch(String channel, byte[] data) {
+        List<SyncMessage> messages;
+        try {
+            messages = MessageCodec.decodeFrame(data);
+        } catch (Exception e) {
+            logger.warning("Failed to process message from " + channel + ": " + e.getMessage());
+            return;
+        }
+        for (SyncMessage message : messages) {
+            dispatch(channel, message);
+        }
+    }
+    
+    private void dispatch(String channel, SyncMessage redisMessage) {
+        try {
+            // Don't process messages from our own server (echo prevention)
+            if (redisMessage.sourceId == serverIds.getLocalId()) {
+                return;
+            }
+            
+            redisMessage.channel = channel;
+            redisMessage.sourceServer = serverIds.resolve(redisMessage.sourceId);
+            if (redisMessage.targetId >= 0) {
+                redisMessage.targetServer = serverIds.resolve(redisMessage.targetId);
+            }
+            if (redisMessage.sourceServer == null) {
+                redisMessage.sourceServer = "#" + redisMessage.sourceId;
+            }
+            
+            messageHandler.accept(redisMessage);
+        } catch (Exception e) {
+            logger.warning("Failed to process message from " + channel + ": " + e.getMessage());
+        }
+    }
+    
+    private static byte[][] toBytes(List<String> channels) {
+        byte[][] result = new byte[channels.size()][];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = channels.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
     }
     
     /**
      * Internal subscriber that handles incoming messages.
      */
-    private class MessageSubscriber extends JedisPubSub {
-        private final Consumer<RedisMessage> handler;
+    private class MessageSubscriber extends BinaryJedisPubSub {
+        private boolean confirmed = false;
         
-        public MessageSubscriber(Consumer<RedisMessage> handler) {
-            this.handler = handler;
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            dispatch(new String(channel, StandardCharsets.UTF_8), message);
         }
         
         @Override
-        public void onMessage(String channel, String message) {
-            try {
-                JsonObject json = gson.fromJson(message, JsonObject.class);
-                RedisMessage redisMessage = new RedisMessage();
-                redisMessage.channel = channel;
-                redisMessage.type = MessageType.valueOf(json.get("type").getAsString());
-                redisMessage.playerId = UUID.fromString(json.get("playerId").getAsString());
-                redisMessage.sourceServer = json.get("sourceServer").getAsString();
-                redisMessage.timestamp = json.get("timestamp").getAsLong();
-                
-                if (json.has("targetServer")) {
-                    redisMessage.targetServer = json.get("targetServer").getAsString();
-                }
-                if (json.has("version")) {
-                    redisMessage.version = json.get("version").getAsLong();
-                }
-                if (json.has("teamId")) {
-                    redisMessage.teamId = json.get("teamId").getAsString();
-                }
-                if (json.has("balance")) {
-                    redisMessage.balance = json.get("balance").getAsDouble();
-                }
-                
-                // Don't process messages from our own server (echo prevention)
-                if (redisMessage.sourceServer.equals(serverId)) {
-                    return;
-                }
-                
-                handler.accept(redisMessage);
-            } catch (Exception e) {
-                logger.warning("Failed to process message from " + channel + ": " + e.getMessage());
+        public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
+            String name = new String(channel, StandardCharsets.UTF_8);
+            if (teamChannels.contains(name)) {
+                dispatch(name, message);
             }
         }
         
         @Override
-        public void onSubscribe(String channel, int subscribedChannels) {
-            logger.info("Subscribed to channel: " + channel + " (total: " + subscribedChannels + ")");
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            logger.info("Subscribed to channel: " + new String(channel, StandardCharsets.UTF_8) + " (total: " + subscribedChannels + ")");
+            if (!confirmed) {
+                confirmed = true;
+                onConnected(this);
+            }
         }
         
         @Override
-        public void onUnsubscribe(String channel, int subscribedChannels) {
-            logger.info("Unsubscribed from channel: " + channel + " (remaining: " + subscribedChannels + ")");
+        public void onPong(byte[] pattern) {
+            lastPong = System.currentTimeMillis();
+        }
+        
+        @Override
+        public void onPSubscribe(byte[] pattern, int subscribedChannels) {
+            logger.info("Subscribed to pattern: " + new String(pattern, StandardCharsets.UTF_8) + " (total: " + subscribedChannels + ")");
+        }
+        
+        @Override
+        public void onUnsubscribe(byte[] channel, int subscribedChannels) {
+            logger.info("Unsubscribed from channel: " + new String(channel, StandardCharsets.UTF_8) + " (remaining: " + subscribedChannels + ")");
         }
     }
     
-    /**
-     * Message types for Pub/Sub communication.
-     */
-    public enum MessageType {
-        INVENTORY_UPDATE,
-        SERVER_SWITCH,
-        PLAYER_DEATH,
-        ECONOMY_UPDATE
-    }
-    
-    /**
-     * Parsed Redis message.
-     */
-    public static class RedisMessage {
-        public String channel;
-        public MessageType type;
-        public UUID playerId;
-        public String sourceServer;
-        public String targetServer;
-        public long version;
-        public long timestamp;
-        public String teamId;
-        public double balance;
+    private void onConnected(MessageSubscriber current) {
+        boolean recovered = state == ConnectionState.RECONNECTING;
+        state = ConnectionState.CONNECTED;
+        lastPong = System.currentTimeMillis();
+        backoff.reset();
+        
+        // Sent from the subscriber's own callback, so the command never waits on a blocked thread
+        current.psubscribe(TEAM_PATTERN);
+        
+        if (recovered) {
+            logger.info("Redis Pub/Sub reconnected (reconnects: " + reconnectCount.get() + ")");
+            if (batcher != null) {
+                batcher.replay();
+            }
+            Runnable listener = reconnectListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
     }
 }
@@ -0,0 +1,242 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.opmasterleo.multiinvsync.storage.ConnectionState;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadParams;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.StreamEntryBinary;
+
+/**
+ * Redis Streams transport for cross-server messages.
+ *
+ * Every logical channel is backed by a capped stream ({@code MAXLEN ~}). This server
+ * keeps its own read cursor per stream in Redis, so entries published while the
+ * reader was disconnected (GC pause, network blip, restart) are replayed instead of lost.
+ *
+ * KEY STRUCTURE:
+ * - {channel}:stream - Capped stream holding messages for the channel
+ * - mis:cursor:{serverId}:{channel} - Last entry ID this server has processed
+ *
+ * In cluster mode stream and cursor keys are prefixed with the {@code {mis:stream}} hash tag so
+ * one XREAD can cover every channel and cursors are saved on the same connection; message
+ * streams are small compared to player data.
+ */
+public class RedisStreamTransport {
+
+    private static final byte[] FIELD_MESSAGE = {'m'};
+    private static final int READ_BATCH = 100;
+    private static final long STREAM_TTL_SECONDS = 86400;
+    private static final String CLUSTER_TAG = "{mis:stream}:";
+
+    private final RedisConnectionManager redis;
+    private final Logger logger;
+    private final String serverId;
+    private final long maxLength;
+    private final int blockMillis;
+    private final BiConsumer<String, byte[]> handler;
+    private final Map<String, StreamEntryID> cursors = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final ReconnectBackoff backoff = new ReconnectBackoff(500L, 30000L);
+    private final AtomicLong reconnectCount = new AtomicLong();
+
+    private volatile ConnectionState state = ConnectionState.STOPPED;
+    private volatile boolean running = false;
+    private volatile Jedis readerConnection;
+
+    public RedisStreamTransport(RedisConnectionManager redis, Logger logger, String serverId,
+                                long maxLength, int timeoutMillis, BiConsumer<String, byte[]> handler) {
+        this.redis = redis;
+        this.logger = logger;
+        this.serverId = serverId;
+        this.maxLength = maxLength;
+        // XREAD BLOCK must return before the socket read timeout fires
+        this.blockMillis = Math.max(100, Math.min(1000, timeoutMillis / 2));
+        this.handler = handler;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Stream-Reader");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start the reader loop for all channels registered so far.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        state = ConnectionState.CONNECTING;
+        executor.submit(this::readLoop);
+        logger.info("Redis Streams transport started for server: " + serverId);
+    }
+
+    /**
+     * Begin reading a channel, resuming from this server's stored cursor if one exists.
+     */
+    public void addChannel(String channel) {
+        if (cursors.containsKey(channel)) {
+            return;
+        }
+        StreamEntryID cursor = redis.execute(jedis -> resolveCursor(jedis, channel));
+        cursors.putIfAbsent(channel, cursor != null ? cursor : new StreamEntryID());
+    }
+
+    public void removeChannel(String channel) {
+        cursors.remove(channel);
+    }
+
+    /**
+     * Queue the XADD for a message on an existing pipeline, for batched publishing.
+     */
+    public void append(AbstractPipeline pipeline, String channel, byte[] message) {
+        byte[] key = getStreamKey(channel).getBytes(StandardCharsets.UTF_8);
+        pipeline.xadd(key, XAddParams.xAddParams().maxLen(maxLength).approximateTrimming(),
+            Map.of(FIELD_MESSAGE, message));
+        pipeline.expire(key, STREAM_TTL_SECONDS);
+    }
+
+    /**
+     * Drop the reader's connection so it reconnects, e.g. to a newly promoted master.
+     */
+    public void reconnect() {
+        Jedis connection = readerConnection;
+        if (connection != null) {
+            connection.disconnect();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    public ConnectionState getConnectionState() {
+        return state;
+    }
+
+    public long getReconnectCount() {
+        return reconnectCount.get();
+    }
+
+    /**
+     * Reads until stopped, reconnecting with jittered backoff. Cursors survive the
+     * reconnect, so the first read after recovery replays everything that was missed.
+     */
+    private void readLoop() {
+        while (running) {
+            try (Jedis jedis = redis.getResource(redis.isClusterMode() ? CLUSTER_TAG : null)) {
+                readerConnection = jedis;
+                jedis.ping();
+                if (state == ConnectionState.RECONNECTING) {
+                    logger.info("Redis stream reader reconnected (reconnects: " + reconnectCount.get() + ")");
+                }
+                state = ConnectionState.CONNECTED;
+                backoff.reset();
+                while (running) {
+                    readOnce(jedis);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                state = ConnectionState.RECONNECTING;
+                long delay = backoff.nextDelay();
+                logger.log(Level.WARNING, "Redis stream reader disconnected, retrying in " + delay + "ms", e);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectCount.incrementAndGet();
+            } finally {
+                readerConnection = null;
+            }
+        }
+        state = ConnectionState.STOPPED;
+    }
+
+    private void readOnce(Jedis jedis) {
+        if (cursors.isEmpty()) {
+            jedis.ping();
+            return;
+        }
+
+        Map<byte[], StreamEntryID> request = new HashMap<>();
+        for (Map.Entry<String, StreamEntryID> entry : cursors.entrySet()) {
+            request.put(getStreamKey(entry.getKey()).getBytes(StandardCharsets.UTF_8), entry.getValue());
+        }
+
+        List<Map.Entry<byte[], List<StreamEntryBinary>>> result =
+            jedis.xreadBinary(XReadParams.xReadParams().block(blockMillis).count(READ_BATCH), request);
+        if (result == null) {
+            return;
+        }
+
+        for (Map.Entry<byte[], List<StreamEntryBinary>> stream : result) {
+            String channel = getChannel(new String(stream.getKey(), StandardCharsets.UTF_8));
+            StreamEntryID last = null;
+            for (StreamEntryBinary entry : stream.getValue()) {
+                last = entry.getID();
+                // Binary maps compare keys by identity, so scan rather than get()
+                for (Map.Entry<byte[], byte[]> field : entry.getFields().entrySet()) {
+                    if (Arrays.equals(field.getKey(), FIELD_MESSAGE)) {
+                        handler.accept(channel, field.getValue());
+                    }
+                }
+            }
+            if (last != null && cursors.replace(channel, last) != null) {
+                jedis.setex(getCursorKey(channel), STREAM_TTL_SECONDS, last.toString());
+            }
+        }
+    }
+
+    /**
+     * Stored cursor if this server read the stream before, otherwise the current tail
+     * so a fresh subscription does not replay the whole backlog.
+     */
+    private StreamEntryID resolveCursor(UnifiedJedis jedis, String channel) {
+        String stored = jedis.get(getCursorKey(channel));
+        if (stored != null) {
+            return new StreamEntryID(stored);
+        }
+        List<StreamEntry> tail = jedis.xrevrange(getStreamKey(channel), "+", "-", 1);
+        return tail == null || tail.isEmpty() ? new StreamEntryID() : tail.get(0).getID();
+    }
+
+    private String getStreamKey(String channel) {
+        return redis.isClusterMode() ? CLUSTER_TAG + channel + ":stream" : channel + ":stream";
+    }
+
+    private String getChannel(String streamKey) {
+        int start = redis.isClusterMode() ? CLUSTER_TAG.length() : 0;
+        return streamKey.substring(start, streamKey.length() - ":stream".length());
+    }
+
+    private String getCursorKey(String channel) {
+        // Same slot as the streams, since cursors are saved on the reader's pinned connection
+        return redis.isClusterMode()
+            ? CLUSTER_TAG + "cursor:" + serverId + ":" + channel
+            : "mis:cursor:" + serverId + ":" + channel;
+    }
+}
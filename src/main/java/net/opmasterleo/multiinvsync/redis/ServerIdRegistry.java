@@ -0,0 +1,95 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Interns server names as small integers so messages carry a varint instead of a string.
+ *
+ * KEY STRUCTURE:
+ * - mis:server-id:seq - Counter used to allocate new IDs
+ * - mis:server-id:by-name - Hash of server name to ID
+ * - mis:server-id:by-id - Hash of ID to server name
+ *
+ * IDs never expire; a server keeps its ID across restarts.
+ */
+public class ServerIdRegistry {
+
+    private static final String SEQ_KEY = "mis:server-id:seq";
+    static final String BY_NAME_KEY = "mis:server-id:by-name";
+    private static final String BY_ID_KEY = "mis:server-id:by-id";
+
+    private final RedisConnectionManager redis;
+    private final Logger logger;
+    private final String serverId;
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile int localId = -1;
+
+    public ServerIdRegistry(RedisConnectionManager redis, Logger logger, String serverId) {
+        this.redis = redis;
+        this.logger = logger;
+        this.serverId = serverId;
+    }
+
+    /**
+     * ID of this server, allocating one on first use.
+     * Returns -1 while Redis is unreachable.
+     */
+    public int getLocalId() {
+        int id = localId;
+        if (id < 0) {
+            Integer allocated = redis.execute(jedis -> {
+                String existing = jedis.hget(BY_NAME_KEY, serverId);
+                if (existing == null) {
+                    long candidate = jedis.incr(SEQ_KEY);
+                    jedis.hsetnx(BY_NAME_KEY, serverId, String.valueOf(candidate));
+                    // Another process may have won the race for this name
+                    existing = jedis.hget(BY_NAME_KEY, serverId);
+                }
+                jedis.hset(BY_ID_KEY, existing, serverId);
+                return Integer.parseInt(existing);
+            });
+            if (allocated != null) {
+                id = allocated;
+                localId = id;
+                names.put(id, serverId);
+                ids.put(serverId, id);
+                logger.fine("Server " + serverId + " interned as #" + id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * ID of another server by name, or -1 if that server never registered.
+     */
+    public int lookup(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            String stored = redis.pipelined(pipeline -> pipeline.hget(BY_NAME_KEY, name));
+            if (stored == null) {
+                return -1;
+            }
+            id = Integer.parseInt(stored);
+            ids.put(name, id);
+            names.put(id, name);
+        }
+        return id;
+    }
+
+    /**
+     * Server name for an ID, or null if it is unknown.
+     */
+    public String resolve(int id) {
+        String name = names.get(id);
+        if (name == null) {
+            name = redis.pipelined(pipeline -> pipeline.hget(BY_ID_KEY, String.valueOf(id)));
+            if (name != null) {
+                names.put(id, name);
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,179 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Tracks which servers have online members of each team, so group messages are only
+ * published when a member elsewhere can receive them.
+ *
+ * KEY STRUCTURE:
+ * - mis:presence:{teamId} - Hash of server ID -> "1" for every server with members of the team online
+ *
+ * A server writes its field when its first member of a team arrives and deletes it when the
+ * last one leaves, announcing both on the team channel. Only servers with members of the team
+ * hear those announcements, and they are the only ones that need them: each keeps the set of
+ * other servers in memory, seeded with one HKEYS when its own first member arrives.
+ * Until a team is seeded it counts as present elsewhere, and a field left behind by a crash
+ * only costs needless publishes, so every error leans towards publishing.
+ * Joins and leaves run one at a time on a single thread, so a quick leave and rejoin can
+ * never reach Redis, or the other servers, in reverse.
+ */
+public class TeamPresenceRegistry {
+
+    private final RedisConnectionManager redis;
+    private final Logger logger;
+    private final String serverId;
+    private final Map<String, Presence> teams = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public TeamPresenceRegistry(RedisConnectionManager redis, Logger logger, String serverId) {
+        this.redis = redis;
+        this.logger = logger;
+        this.serverId = serverId;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Presence");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queue a change of this server's presence in the team. When it runs, {@code present} is read
+     * again and only a real change is written and then passed to {@code announce}, so a leave that
+     * was overtaken by a rejoin does nothing.
+     */
+    public void update(String teamId, BooleanSupplier present, Consumer<Boolean> announce) {
+        executor.execute(() -> {
+            boolean now = present.getAsBoolean();
+            if (now == teams.containsKey(teamId)) {
+                return;
+            }
+            if (now) {
+                join(teamId);
+            } else {
+                leave(teamId);
+            }
+            announce.accept(now);
+        });
+    }
+
+    /**
+     * The first member of the team is now online here. Blocks on Redis.
+     */
+    private void join(String teamId) {
+        Presence presence = new Presence();
+        teams.put(teamId, presence);
+        String key = key(teamId);
+        // One pipeline keeps the write ahead of the read: of two servers joining at once,
+        // at least one sees the other and its announcement reaches the first
+        Set<String> servers = redis.pipelined(pipeline -> {
+            pipeline.hset(key, serverId, "1");
+            return pipeline.hkeys(key);
+        });
+        seeded(teamId, presence, servers);
+    }
+
+    /**
+     * The last member of the team left this server.
+     */
+    private void leave(String teamId) {
+        teams.remove(teamId);
+        String key = key(teamId);
+        redis.pipelinedVoid(pipeline -> pipeline.hdel(key, serverId));
+    }
+
+    /**
+     * Another server announced that it gained its first, or lost its last, member of the team.
+     */
+    public void onAnnounce(String teamId, String server, boolean present) {
+        Presence presence = teams.get(teamId);
+        if (presence == null || serverId.equals(server)) {
+            return;
+        }
+        if (present) {
+            presence.servers.add(server);
+        } else {
+            presence.servers.remove(server);
+        }
+    }
+
+    /**
+     * Whether a message for the team may reach anyone. True for teams not tracked here.
+     */
+    public boolean hasRemoteMembers(String teamId) {
+        Presence presence = teams.get(teamId);
+        return presence == null || !presence.seeded || !presence.servers.isEmpty();
+    }
+
+    /**
+     * Re-read every tracked team, e.g. after announcements may have been missed while disconnected.
+     */
+    public void refresh() {
+        for (Map.Entry<String, Presence> entry : teams.entrySet()) {
+            seed(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Remove this server from every team it is listed in.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> keys = new ArrayList<>();
+        for (String teamId : teams.keySet()) {
+            keys.add(key(teamId));
+        }
+        teams.clear();
+        if (!keys.isEmpty()) {
+            redis.pipelined(pipeline -> {
+                for (String key : keys) {
+                    pipeline.hdel(key, serverId);
+                }
+                return () -> null;
+            });
+        }
+    }
+
+    private void seed(String teamId, Presence presence) {
+        String key = key(teamId);
+        seeded(teamId, presence, redis.pipelined(pipeline -> pipeline.hkeys(key)));
+    }
+
+    private void seeded(String teamId, Presence presence, Set<String> servers) {
+        if (servers == null) {
+            logger.fine("Could not read presence of team " + teamId + ", publishing unconditionally");
+            return;
+        }
+        // Announcements that arrived while reading are kept; a stale extra entry only costs publishes
+        for (String server : servers) {
+            if (!serverId.equals(server)) {
+                presence.servers.add(server);
+            }
+        }
+        presence.seeded = true;
+    }
+
+    private static String key(String teamId) {
+        return "mis:presence:{" + teamId + "}";
+    }
+
+    private static final class Presence {
+        final Set<String> servers = ConcurrentHashMap.newKeySet();
+        volatile boolean seeded;
+    }
+}
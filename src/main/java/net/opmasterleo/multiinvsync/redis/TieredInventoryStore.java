@@ -0,0 +1,283 @@
+package net.opmasterleo.multiinvsync.redis;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import net.opmasterleo.multiinvsync.storage.ColdArchive;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
+import net.opmasterleo.multiinvsync.storage.InventoryStore;
+
+/**
+ * Redis as the hot tier with a local {@link ColdArchive} behind it.
+ *
+ * The last snapshot written for each player on this server is kept in memory while they are
+ * online. Shortly after they leave it is archived locally, and a small marker key in Redis
+ * records which server archived it and when. When a player's Redis keys have expired, a login
+ * on the archiving server restores the archive into Redis under its original version.
+ * A miss on any other server with the tier enabled reads the marker, asks the archiving server
+ * to restore it and waits briefly for the copy to appear; it never rehydrates an older copy of
+ * its own. If the archiving server does not answer in time, the load proceeds without it.
+ */
+public class TieredInventoryStore implements InventoryStore {
+
+    private static final long ARCHIVE_DELAY_SECONDS = 10L;
+    private static final long PURGE_INTERVAL_HOURS = 6L;
+    private static final long REMOTE_WAIT_MILLIS = 2000L;
+    private static final long REMOTE_POLL_MILLIS = 100L;
+    private static final long REMOTE_RETRY_MILLIS = 30000L;
+
+    private final RedisInventoryStorage hot;
+    private final ColdArchive archive;
+    private final Logger logger;
+    private final long retentionMillis;
+    private final Map<UUID, ColdArchive.Record> latest = new ConcurrentHashMap<>();
+    private final Set<UUID> present = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> remoteRequests = new ConcurrentHashMap<>();
+    private final BiConsumer<UUID, String> remoteRehydrate;
+    private final ScheduledExecutorService executor;
+    private final String serverId;
+
+    /**
+     * {@code remoteRehydrate} asks the named server to restore the player's archive.
+     */
+    public TieredInventoryStore(RedisInventoryStorage hot, ColdArchive archive, Logger logger, String serverId,
+                                int retentionDays, BiConsumer<UUID, String> remoteRehydrate) {
+        this.hot = hot;
+        this.remoteRehydrate = remoteRehydrate;
+        this.serverId = serverId;
+        this.archive = archive;
+        this.logger = logger;
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(1, retentionDays));
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Archive");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::purge, 1, PURGE_INTERVAL_HOURS * 60, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public long saveInventory(UUID playerId, InventoryData data) {
+        long version = hot.saveInventory(playerId, data);
+        if (version > 0 && data.payload != null) {
+            latest.compute(playerId, (id, old) -> new ColdArchive.Record(data.payload, version, data.timestamp,
+                old != null ? old.balance : null));
+            if (!present.contains(playerId)) {
+                // Saved after the player left (quit save, journal replay), archive this newer copy too
+                scheduleArchive(playerId);
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public InventoryData loadInventory(UUID playerId) {
+        InventoryData data = hot.loadInventory(playerId);
+        return data != null ? data : rehydrate(playerId);
+    }
+
+    @Override
+    public InventoryData loadInventory(UUID playerId, long minVersion) {
+        InventoryData data = hot.loadInventory(playerId, minVersion);
+        return data != null ? data : rehydrate(playerId);
+    }
+
+    @Override
+    public InventoryData decodeInventory(String payload) {
+        return hot.decodeInventory(payload);
+    }
+
+    @Override
+    public boolean saveEconomy(UUID playerId, double balance) {
+        if (!hot.saveEconomy(playerId, balance)) {
+            return false;
+        }
+        latest.computeIfPresent(playerId, (id, old) -> new ColdArchive.Record(old.json, old.version, old.timestamp, balance));
+        return true;
+    }
+
+    @Override
+    public Double loadEconomy(UUID playerId) {
+        return hot.loadEconomy(playerId);
+    }
+
+    @Override
+    public void registerPlayer(UUID playerId, String serverId) {
+        present.add(playerId);
+        hot.registerPlayer(playerId, serverId);
+    }
+
+    @Override
+    public void unregisterPlayer(UUID playerId, String serverId) {
+        present.remove(playerId);
+        hot.unregisterPlayer(playerId, serverId);
+        scheduleArchive(playerId);
+    }
+
+    @Override
+    public boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId) {
+        return hot.isPlayerActiveElsewhere(playerId, currentServerId);
+    }
+
+    @Override
+    public void deletePlayer(UUID playerId) {
+        latest.remove(playerId);
+        hot.deletePlayer(playerId);
+    }
+
+    @Override
+    public Map<UUID, Loaded> loadAll(Collection<UUID> playerIds, String serverId, boolean withEconomy) {
+        present.addAll(playerIds);
+        Map<UUID, Loaded> loaded = hot.loadAll(playerIds, serverId, withEconomy);
+        for (Map.Entry<UUID, Loaded> entry : loaded.entrySet()) {
+            if (entry.getValue().data == null) {
+                InventoryData data = rehydrate(entry.getKey());
+                if (data != null) {
+                    entry.setValue(new Loaded(data, withEconomy ? hot.loadEconomy(entry.getKey()) : null));
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    @Override
+    public Map<UUID, Long> saveAll(Map<UUID, InventoryData> snapshots, Map<UUID, Double> balances, String leavingServerId) {
+        Map<UUID, Long> versions = hot.saveAll(snapshots, balances, leavingServerId);
+        for (Map.Entry<UUID, Long> entry : versions.entrySet()) {
+            UUID playerId = entry.getKey();
+            InventoryData data = snapshots.get(playerId);
+            if (entry.getValue() > 0 && data.payload != null) {
+                Double balance = balances.get(playerId);
+                latest.compute(playerId, (id, old) -> new ColdArchive.Record(data.payload, entry.getValue(), data.timestamp,
+                    balance != null ? balance : old != null ? old.balance : null));
+            }
+            if (leavingServerId != null) {
+                present.remove(playerId);
+            }
+        }
+        return versions;
+    }
+    
+    /**
+     * Archive everything still held in memory. Must run before the Redis connection closes.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (UUID playerId : latest.keySet()) {
+            archive(playerId);
+        }
+    }
+
+    private void scheduleArchive(UUID playerId) {
+        try {
+            executor.schedule(() -> {
+                if (!present.contains(playerId)) {
+                    archive(playerId);
+                }
+            }, ARCHIVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Executor already stopped, shutdown() archives what is left
+        }
+    }
+
+    private void archive(UUID playerId) {
+        ColdArchive.Record record = latest.remove(playerId);
+        if (record == null) {
+            return;
+        }
+        try {
+            archive.write(playerId, record);
+            hot.markArchived(playerId, serverId, record.timestamp, TimeUnit.MILLISECONDS.toSeconds(retentionMillis));
+            logger.fine("Archived inventory for " + playerId + " (version: " + record.version + ")");
+        } catch (Exception e) {
+            logger.warning("Failed to archive inventory for " + playerId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Another server missed the player in Redis and found our archive marker.
+     */
+    public void rehydrateOnRequest(UUID playerId) {
+        if (hot.loadInventory(playerId) == null) {
+            rehydrate(playerId);
+        }
+    }
+
+    private InventoryData rehydrate(UUID playerId) {
+        String marker = hot.loadArchiveMarker(playerId);
+        int separator = marker != null ? marker.lastIndexOf('|') : -1;
+        if (separator < 0) {
+            // No marker: retention elapsed, or Redis is unreachable and we cannot tell who is newest
+            return null;
+        }
+        String archivedBy = marker.substring(0, separator);
+        long archivedAt = Long.parseLong(marker.substring(separator + 1));
+        if (!archivedBy.equals(serverId)) {
+            return awaitRemote(playerId, archivedBy);
+        }
+        ColdArchive.Record record = archive.read(playerId);
+        if (record == null || record.timestamp < archivedAt) {
+            logger.fine("Not rehydrating " + playerId + ", no archive at least as new as the marker");
+            return null;
+        }
+
+        Boolean restored = hot.restoreInventory(playerId, record.json, record.version);
+        if (restored == null) {
+            return null;
+        }
+        if (!restored) {
+            // Another server wrote a snapshot since our Redis miss, use that one
+            return hot.loadInventory(playerId);
+        }
+        if (record.balance != null) {
+            hot.saveEconomy(playerId, record.balance);
+        }
+        logger.info("Rehydrated archived inventory for " + playerId + " (version: " + record.version + ")");
+        return hot.decodeInventory(record.json);
+    }
+
+    /**
+     * Have the archiving server restore the player and wait briefly for the copy to land in Redis.
+     * A player asked for recently is only checked once, so a server that is down does not stall
+     * every following load of the player.
+     */
+    private InventoryData awaitRemote(UUID playerId, String archivedBy) {
+        long now = System.currentTimeMillis();
+        remoteRequests.values().removeIf(requestedAt -> now - requestedAt > REMOTE_RETRY_MILLIS);
+        if (remoteRequests.putIfAbsent(playerId, now) != null) {
+            return hot.loadInventory(playerId);
+        }
+        remoteRehydrate.accept(playerId, archivedBy);
+        long deadline = now + REMOTE_WAIT_MILLIS;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(REMOTE_POLL_MILLIS);
+                InventoryData data = hot.loadInventory(playerId);
+                if (data != null) {
+                    remoteRequests.remove(playerId);
+                    return data;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.warning("Archive of " + playerId + " is held by " + archivedBy
+            + ", which did not restore it in time; loading without it");
+        return null;
+    }
+
+    private void purge() {
+        int purged = archive.purgeOlderThan(System.currentTimeMillis() - retentionMillis);
+        if (purged > 0) {
+            logger.info("Purged " + purged + " expired inventory archives");
+        }
+    }
+}
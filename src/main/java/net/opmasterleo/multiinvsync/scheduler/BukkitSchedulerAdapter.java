@@ -34,6 +34,12 @@ public class BukkitSchedulerAdapter implements SchedulerAdapter {
     public void runAsync(Runnable task) {
         asyncTasks.add(scheduler.runTaskAsynchronously(plugin, task));
     }
+
+    @Override
+    public TaskHandle runMainTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask timer = scheduler.runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return timer::cancel;
+    }
     
     @Override
     public void runAtEntity(Entity entity, Runnable task) {
@@ -14,6 +14,7 @@ public class FoliaSchedulerAdapter implements SchedulerAdapter {
     private final Object asyncScheduler;
     private final Method globalRun;
     private final Method globalRunDelayed;
+    private final Method globalRunAtFixedRate;
     private final Method asyncRunNow;
     private final Method entityGetScheduler;
     private final Method entityRun;
@@ -36,6 +37,7 @@ public class FoliaSchedulerAdapter implements SchedulerAdapter {
 
             this.globalRun = globalSchedulerClass.getMethod("run", Plugin.class, Consumer.class);
             this.globalRunDelayed = globalSchedulerClass.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+            this.globalRunAtFixedRate = globalSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
             this.asyncRunNow = asyncSchedulerClass.getMethod("runNow", Plugin.class, Consumer.class);
             
             this.entityGetScheduler = org.bukkit.entity.Entity.class.getMethod("getScheduler");
@@ -64,6 +66,21 @@ public class FoliaSchedulerAdapter implements SchedulerAdapter {
         }
     }
 
+    @Override
+    public TaskHandle runMainTimer(Runnable task, long delayTicks, long periodTicks) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        // Folia rejects an initial delay below one tick
+        Object handle = invoke(globalRunAtFixedRate, globalScheduler, plugin, consumer, Math.max(1L, delayTicks), periodTicks);
+        if (handle == null) {
+            return () -> { };
+        }
+        tasks.add(handle);
+        return () -> {
+            tasks.remove(handle);
+            cancel(handle);
+        };
+    }
+
     @Override
     public void runAsync(Runnable task) {
         Consumer<Object> consumer = scheduledTask -> task.run();
@@ -97,16 +114,20 @@ public class FoliaSchedulerAdapter implements SchedulerAdapter {
     @Override
     public void shutdown() {
         for (Object handle : tasks) {
-            try {
-                Method cancel = handle.getClass().getMethod("cancel");
-                cancel.invoke(handle);
-            } catch (Exception ignored) {
-                // best effort; Folia handles completed tasks automatically
-            }
+            cancel(handle);
         }
         tasks.clear();
     }
 
+    private void cancel(Object handle) {
+        try {
+            Method cancel = handle.getClass().getMethod("cancel");
+            cancel.invoke(handle);
+        } catch (Exception ignored) {
+            // best effort; Folia handles completed tasks automatically
+        }
+    }
+
     private Object invoke(Method method, Object target, Object... args) {
         try {
             return method.invoke(target, args);
@@ -7,6 +7,11 @@ public interface SchedulerAdapter {
     void runMainLater(Runnable task, long delayTicks);
     void runAsync(Runnable task);
     
+    /**
+     * Runs the task on the main (global region) thread every {@code periodTicks}, starting after {@code delayTicks}.
+     */
+    TaskHandle runMainTimer(Runnable task, long delayTicks, long periodTicks);
+    
     /**
      * Schedules a task to execute on the thread owning the entity.
      * On Bukkit: Same as runMain (Sync).
@@ -0,0 +1,8 @@
+package net.opmasterleo.multiinvsync.scheduler;
+
+/**
+ * A scheduled repeating task that can be stopped.
+ */
+public interface TaskHandle {
+    void cancel();
+}
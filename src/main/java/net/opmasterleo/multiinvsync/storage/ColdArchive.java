@@ -0,0 +1,110 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Local cold tier for snapshots of players who have left this server.
+ *
+ * One gzipped JSON file per player under {@code archive/<first two uuid chars>/}, replaced
+ * atomically on every write so a crash leaves either the old or the new record.
+ */
+public class ColdArchive {
+
+    private final Path directory;
+    private final Logger logger;
+
+    public ColdArchive(File directory, Logger logger) throws IOException {
+        this.directory = directory.toPath();
+        this.logger = logger;
+        Files.createDirectories(this.directory);
+    }
+
+    public void write(UUID playerId, Record record) throws IOException {
+        JsonObject root = new JsonObject();
+        root.addProperty("v", record.version);
+        root.addProperty("t", record.timestamp);
+        root.addProperty("s", record.json);
+        if (record.balance != null) {
+            root.addProperty("b", record.balance);
+        }
+        Path file = file(playerId);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            out.write(root.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the archived record, or null if there is none or it cannot be read.
+     */
+    public Record read(UUID playerId) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file(playerId)))) {
+            JsonObject root = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonObject();
+            return new Record(
+                root.get("s").getAsString(),
+                root.get("v").getAsLong(),
+                root.get("t").getAsLong(),
+                root.has("b") ? root.get("b").getAsDouble() : null
+            );
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (Exception e) {
+            logger.warning("Failed to read archived inventory for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Delete records not rewritten for longer than the retention period.
+     */
+    public int purgeOlderThan(long cutoffMillis) {
+        int purged = 0;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoffMillis && Files.deleteIfExists(file)) {
+                    purged++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to purge inventory archive: " + e.getMessage());
+        }
+        return purged;
+    }
+
+    private Path file(UUID playerId) {
+        String name = playerId.toString();
+        return directory.resolve(name.substring(0, 2)).resolve(name + ".json.gz");
+    }
+
+    public static class Record {
+        public final String json;
+        public final long version;
+        public final long timestamp;
+        public final Double balance;
+
+        public Record(String json, long version, long timestamp, Double balance) {
+            this.json = json;
+            this.version = version;
+            this.timestamp = timestamp;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package net.opmasterleo.multiinvsync.storage;
+
+/**
+ * Subscriber connection state, exposed for diagnostics.
+ */
+public enum ConnectionState {
+    CONNECTING,
+    CONNECTED,
+    RECONNECTING,
+    STOPPED
+}
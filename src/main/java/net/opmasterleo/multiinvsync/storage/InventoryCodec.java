@@ -0,0 +1,156 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtUtils;
+
+/**
+ * JSON form of an inventory snapshot shared by every storage backend.
+ * Items are stored as SNBT; experience is embedded so one string carries the full snapshot.
+ */
+public class InventoryCodec {
+    
+    private final Logger logger;
+    private final Gson gson;
+    
+    public InventoryCodec(Logger logger) {
+        this.logger = logger;
+        this.gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .serializeNulls()
+            .create();
+    }
+    
+    /**
+     * Serialize a snapshot into its stored JSON form.
+     * Experience is embedded as well so the same string can travel inside a Pub/Sub message.
+     * The item SNBT is built once per snapshot; later saves of the same snapshot reuse it.
+     */
+    public String encode(InventoryData data) {
+        String body = data.encodedBody;
+        if (body == null) {
+            JsonObject root = new JsonObject();
+            root.add("i", serializeItems(data.mainInventory));
+            root.add("a", serializeItems(data.armorContents));
+            root.addProperty("o", serializeItem(data.offhand));
+            root.add("e", serializeItems(data.enderChest));
+            root.addProperty("c", serializeItem(data.cursor));
+            if (data.xpLevel >= 0) {
+                root.add("x", experienceJson(data));
+            }
+            if (data.scope != null) {
+                root.addProperty("s", data.scope);
+            }
+            body = root.toString();
+            data.encodedBody = body;
+        }
+        // Version and time change with every save, so they are spliced in front of the memoized items
+        return "{\"v\":" + data.version + ",\"t\":" + data.timestamp + "," + body.substring(1);
+    }
+    
+    /**
+     * Parse a snapshot produced by {@link #encode(InventoryData)}.
+     */
+    public InventoryData decode(String json) {
+        JsonObject root = gson.fromJson(json, JsonObject.class);
+        InventoryData data = new InventoryData();
+        data.version = root.get("v").getAsLong();
+        data.timestamp = root.get("t").getAsLong();
+        data.mainInventory = deserializeItems(root.getAsJsonArray("i"), 36);
+        data.armorContents = deserializeItems(root.getAsJsonArray("a"), 4);
+        data.offhand = deserializeItem(root.get("o"));
+        data.enderChest = deserializeItems(root.getAsJsonArray("e"), 27);
+        data.cursor = deserializeItem(root.get("c"));
+        if (root.has("x")) {
+            readExperience(data, root.getAsJsonObject("x"));
+        }
+        if (root.has("s")) {
+            data.scope = root.get("s").getAsString();
+        }
+        return data;
+    }
+    
+    /**
+     * Experience on its own, for backends that keep it under a separate key.
+     */
+    public String encodeExperience(InventoryData data) {
+        return experienceJson(data).toString();
+    }
+    
+    public void decodeExperience(InventoryData data, String json) {
+        readExperience(data, gson.fromJson(json, JsonObject.class));
+    }
+    
+    private JsonObject experienceJson(InventoryData data) {
+        JsonObject xpData = new JsonObject();
+        xpData.addProperty("l", data.xpLevel);
+        xpData.addProperty("x", data.xpTotal);
+        xpData.addProperty("p", data.xpExp);
+        return xpData;
+    }
+    
+    private void readExperience(InventoryData data, JsonObject xpData) {
+        data.xpLevel = xpData.get("l").getAsInt();
+        data.xpTotal = xpData.get("x").getAsInt();
+        data.xpExp = xpData.get("p").getAsFloat();
+    }
+    
+    private JsonArray serializeItems(List<net.minecraft.world.item.ItemStack> items) {
+        JsonArray array = new JsonArray();
+        for (net.minecraft.world.item.ItemStack item : items) {
+            array.add(gson.toJsonTree(serializeItem(item)));
+        }
+        return array;
+    }
+    
+    private String serializeItem(net.minecraft.world.item.ItemStack item) {
+        if (item == null || item.isEmpty()) {
+            return "";
+        }
+        try {
+            CompoundTag tag = new CompoundTag();
+            item.save(null, tag);
+            return NbtUtils.structureToSnbt(tag);
+        } catch (Exception e) {
+            logger.warning("Failed to serialize item: " + e.getMessage());
+            return "";
+        }
+    }
+    
+    private List<net.minecraft.world.item.ItemStack> deserializeItems(JsonArray array, int expectedSize) {
+        List<net.minecraft.world.item.ItemStack> items = new ArrayList<>();
+        for (int i = 0; i < expectedSize; i++) {
+            if (i < array.size()) {
+                items.add(deserializeItem(array.get(i)));
+            } else {
+                items.add(net.minecraft.world.item.ItemStack.EMPTY);
+            }
+        }
+        return items;
+    }
+    
+    private net.minecraft.world.item.ItemStack deserializeItem(com.google.gson.JsonElement element) {
+        if (element == null || !element.isJsonPrimitive()) {
+            return net.minecraft.world.item.ItemStack.EMPTY;
+        }
+        String snbt = element.getAsString();
+        if (snbt.isEmpty()) {
+            return net.minecraft.world.item.ItemStack.EMPTY;
+        }
+        try {
+            CompoundTag tag = NbtUtils.snbtToStructure(snbt);
+            return net.minecraft.world.item.ItemStack.parseOptional(null, tag);
+        } catch (Exception e) {
+            logger.warning("Failed to deserialize item: " + e.getMessage());
+            return net.minecraft.world.item.ItemStack.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data class for inventory snapshots.
+ */
+public class InventoryData {
+    public long version;
+    public long timestamp;
+    public List<net.minecraft.world.item.ItemStack> mainInventory = new ArrayList<>();
+    public List<net.minecraft.world.item.ItemStack> armorContents = new ArrayList<>();
+    public net.minecraft.world.item.ItemStack offhand;
+    public List<net.minecraft.world.item.ItemStack> enderChest = new ArrayList<>();
+    public net.minecraft.world.item.ItemStack cursor;
+    public int xpLevel = -1;
+    public int xpTotal = -1;
+    public float xpExp = 0.0f;
+    /** Sync scope (world or world group) the snapshot was captured in, null when scoping is off. */
+    public String scope;
+    /** Serialized form written by the last save, reused for inline Pub/Sub payloads. */
+    public String payload;
+    /** Items and experience as serialized by InventoryCodec, memoized since they never change after capture. */
+    public String encodedBody;
+}
@@ -0,0 +1,95 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Versioned, expiring storage for player snapshots and balances.
+ * Implemented by the Redis backend and by the in-memory backend.
+ */
+public interface InventoryStore {
+    
+    /**
+     * Store a snapshot under the next version. Returns that version, or -1 if the save failed.
+     */
+    long saveInventory(UUID playerId, InventoryData data);
+    
+    InventoryData loadInventory(UUID playerId);
+    
+    /**
+     * Load a snapshot known to exist at {@code minVersion} or newer, e.g. the version announced
+     * in an update message. Stores reading from a copy that may lag use it to tell whether the
+     * copy is recent enough.
+     */
+    default InventoryData loadInventory(UUID playerId, long minVersion) {
+        return loadInventory(playerId);
+    }
+    
+    /**
+     * Parse a serialized snapshot carried inline in a message.
+     */
+    InventoryData decodeInventory(String payload);
+    
+    /**
+     * Returns false if the balance could not be written.
+     */
+    boolean saveEconomy(UUID playerId, double balance);
+    
+    Double loadEconomy(UUID playerId);
+    
+    void registerPlayer(UUID playerId, String serverId);
+    
+    void unregisterPlayer(UUID playerId, String serverId);
+    
+    boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId);
+    
+    void deletePlayer(UUID playerId);
+    
+    /**
+     * Load and register several players at once, e.g. everyone online after a restart or reload.
+     * Every requested player is in the result; fields are null where nothing is stored.
+     */
+    default Map<UUID, Loaded> loadAll(Collection<UUID> playerIds, String serverId, boolean withEconomy) {
+        Map<UUID, Loaded> loaded = new HashMap<>();
+        for (UUID playerId : playerIds) {
+            loaded.put(playerId, new Loaded(loadInventory(playerId), withEconomy ? loadEconomy(playerId) : null));
+            registerPlayer(playerId, serverId);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Save several snapshots, and balances where given, at once. Players are unregistered from
+     * {@code leavingServerId} unless it is null. Returns the new version of every snapshot, -1 where it failed.
+     */
+    default Map<UUID, Long> saveAll(Map<UUID, InventoryData> snapshots, Map<UUID, Double> balances, String leavingServerId) {
+        Map<UUID, Long> versions = new HashMap<>();
+        for (Map.Entry<UUID, InventoryData> entry : snapshots.entrySet()) {
+            UUID playerId = entry.getKey();
+            versions.put(playerId, saveInventory(playerId, entry.getValue()));
+            Double balance = balances.get(playerId);
+            if (balance != null) {
+                saveEconomy(playerId, balance);
+            }
+            if (leavingServerId != null) {
+                unregisterPlayer(playerId, leavingServerId);
+            }
+        }
+        return versions;
+    }
+    
+    /**
+     * One player's result of {@link #loadAll}.
+     */
+    class Loaded {
+        public final InventoryData data;
+        public final Double balance;
+        
+        public Loaded(InventoryData data, Double balance) {
+            this.data = data;
+            this.balance = balance;
+        }
+    }
+}
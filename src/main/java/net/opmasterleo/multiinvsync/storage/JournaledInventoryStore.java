@@ -0,0 +1,374 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import net.opmasterleo.multiinvsync.storage.WriteAheadJournal.Entry;
+
+/**
+ * {@link InventoryStore} that appends every write to a local {@link WriteAheadJournal} before
+ * handing it to the wrapped store, acknowledges it once the store accepted it, and replays
+ * whatever is still unacknowledged once the store accepts writes again.
+ *
+ * Only the latest pending snapshot and balance per player are kept. Replay runs in journal
+ * order and skips a snapshot if the store already holds one captured after it, so a stale
+ * local copy never overwrites progress made on another server in the meantime.
+ * Loads replay a player's pending snapshot first, and serve it while the store is unreachable,
+ * so a player never gets an older copy than the one this server last wrote.
+ * Entries journaled before a crash are picked up and replayed on the next start.
+ */
+public class JournaledInventoryStore implements InventoryStore {
+
+    private static final long REPLAY_MIN_MILLIS = 5000L;
+    private static final long REPLAY_MAX_MILLIS = 60000L;
+    private static final long COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final long TRUNCATE_BYTES = 64L * 1024;
+
+    private final InventoryStore delegate;
+    private final WriteAheadJournal journal;
+    private final Logger logger;
+    private final InventoryCodec codec;
+    private final Map<UUID, Entry> pendingSnapshots = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> pendingBalances = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private volatile long replayDelay = REPLAY_MIN_MILLIS;
+    private volatile long nextReplayAt;
+
+    public JournaledInventoryStore(InventoryStore delegate, File directory, Logger logger, long fsyncIntervalMillis)
+            throws IOException {
+        this.delegate = delegate;
+        this.logger = logger;
+        this.codec = new InventoryCodec(logger);
+        this.journal = new WriteAheadJournal(directory, logger);
+        recover(journal.open());
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Redis-Journal");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(100L, fsyncIntervalMillis);
+        executor.scheduleWithFixedDelay(this::tick, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long saveInventory(UUID playerId, InventoryData data) {
+        Entry entry = journalSnapshot(playerId, data);
+        long version = delegate.saveInventory(playerId, data);
+        if (version > 0) {
+            acknowledge(pendingSnapshots, entry);
+        } else if (entry != null) {
+            logger.warning("Keeping journaled inventory for " + playerId + " until storage is reachable again");
+        }
+        return version;
+    }
+    
+    private Entry journalSnapshot(UUID playerId, InventoryData data) {
+        try {
+            String json = data.payload != null ? data.payload : codec.encode(data);
+            // Registered under the journal's lock so a checkpoint never misses an appended entry
+            synchronized (journal) {
+                Entry entry = journal.appendSnapshot(playerId, System.currentTimeMillis(), json);
+                pendingSnapshots.put(playerId, entry);
+                return entry;
+            }
+        } catch (Exception e) {
+            logger.severe("Failed to journal inventory for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public InventoryData loadInventory(UUID playerId) {
+        InventoryData journaled = settle(playerId);
+        return journaled != null ? journaled : delegate.loadInventory(playerId);
+    }
+
+    @Override
+    public InventoryData loadInventory(UUID playerId, long minVersion) {
+        InventoryData journaled = settle(playerId);
+        return journaled != null ? journaled : delegate.loadInventory(playerId, minVersion);
+    }
+    
+    /**
+     * Replay the player's pending snapshot, if any. Returns it if the store still rejects it,
+     * null if there is nothing pending anymore and the store holds the latest copy.
+     */
+    private InventoryData settle(UUID playerId) {
+        Entry entry = pendingSnapshots.get(playerId);
+        if (entry == null || replay(entry)) {
+            return null;
+        }
+        try {
+            InventoryData data = codec.decode(entry.json);
+            data.timestamp = entry.timestamp;
+            return data;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public InventoryData decodeInventory(String payload) {
+        return delegate.decodeInventory(payload);
+    }
+
+    @Override
+    public boolean saveEconomy(UUID playerId, double balance) {
+        Entry entry = journalBalance(playerId, balance);
+        if (delegate.saveEconomy(playerId, balance)) {
+            acknowledge(pendingBalances, entry);
+            return true;
+        }
+        return false;
+    }
+    
+    private Entry journalBalance(UUID playerId, double balance) {
+        try {
+            synchronized (journal) {
+                Entry entry = journal.appendEconomy(playerId, System.currentTimeMillis(), balance);
+                pendingBalances.put(playerId, entry);
+                return entry;
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to journal balance for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Double loadEconomy(UUID playerId) {
+        Entry entry = pendingBalances.get(playerId);
+        if (entry != null && !replay(entry)) {
+            return entry.balance;
+        }
+        return delegate.loadEconomy(playerId);
+    }
+
+    @Override
+    public void registerPlayer(UUID playerId, String serverId) {
+        delegate.registerPlayer(playerId, serverId);
+    }
+
+    @Override
+    public void unregisterPlayer(UUID playerId, String serverId) {
+        delegate.unregisterPlayer(playerId, serverId);
+    }
+
+    @Override
+    public boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId) {
+        return delegate.isPlayerActiveElsewhere(playerId, currentServerId);
+    }
+
+    @Override
+    public void deletePlayer(UUID playerId) {
+        acknowledge(pendingSnapshots, playerId);
+        acknowledge(pendingBalances, playerId);
+        delegate.deletePlayer(playerId);
+    }
+
+    @Override
+    public Map<UUID, Loaded> loadAll(Collection<UUID> playerIds, String serverId, boolean withEconomy) {
+        Map<UUID, InventoryData> journaled = new HashMap<>();
+        for (UUID playerId : playerIds) {
+            InventoryData data = settle(playerId);
+            if (data != null) {
+                journaled.put(playerId, data);
+            }
+        }
+        Map<UUID, Loaded> loaded = delegate.loadAll(playerIds, serverId, withEconomy);
+        if (journaled.isEmpty() && pendingBalances.isEmpty()) {
+            return loaded;
+        }
+        for (UUID playerId : playerIds) {
+            Entry balance = withEconomy ? pendingBalances.get(playerId) : null;
+            InventoryData data = journaled.get(playerId);
+            if (data == null && balance == null) {
+                continue;
+            }
+            Loaded stored = loaded.get(playerId);
+            loaded.put(playerId, new Loaded(
+                    data != null ? data : stored != null ? stored.data : null,
+                    balance != null ? balance.balance : stored != null ? stored.balance : null));
+        }
+        return loaded;
+    }
+    
+    /**
+     * Balances share the snapshots' pipeline, so a balance counts as failed with its player's snapshot.
+     */
+    @Override
+    public Map<UUID, Long> saveAll(Map<UUID, InventoryData> snapshots, Map<UUID, Double> balances, String leavingServerId) {
+        Map<UUID, Entry> snapshotEntries = new HashMap<>();
+        Map<UUID, Entry> balanceEntries = new HashMap<>();
+        for (Map.Entry<UUID, InventoryData> snapshot : snapshots.entrySet()) {
+            UUID playerId = snapshot.getKey();
+            Entry entry = journalSnapshot(playerId, snapshot.getValue());
+            if (entry != null) {
+                snapshotEntries.put(playerId, entry);
+            }
+            Double balance = balances.get(playerId);
+            if (balance != null && (entry = journalBalance(playerId, balance)) != null) {
+                balanceEntries.put(playerId, entry);
+            }
+        }
+        journal.sync();
+        
+        Map<UUID, Long> versions = delegate.saveAll(snapshots, balances, leavingServerId);
+        for (Map.Entry<UUID, Long> entry : versions.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            UUID playerId = entry.getKey();
+            acknowledge(pendingSnapshots, snapshotEntries.get(playerId));
+            acknowledge(pendingBalances, balanceEntries.get(playerId));
+        }
+        return versions;
+    }
+    
+    public int getPendingCount() {
+        return pendingSnapshots.size() + pendingBalances.size();
+    }
+
+    /**
+     * Make one last replay attempt, then flush and close the journal.
+     * Whatever is still pending stays on disk for the next start.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        replay();
+        if (getPendingCount() > 0) {
+            logger.warning(getPendingCount() + " journaled writes will be replayed on next start");
+        }
+        journal.close();
+    }
+
+    private void recover(List<Entry> entries) {
+        for (Entry entry : entries) {
+            switch (entry.type) {
+                case WriteAheadJournal.SNAPSHOT -> pendingSnapshots.put(entry.playerId, entry);
+                case WriteAheadJournal.ECONOMY -> pendingBalances.put(entry.playerId, entry);
+                default -> {
+                    removeIfSequence(pendingSnapshots, entry);
+                    removeIfSequence(pendingBalances, entry);
+                }
+            }
+        }
+        if (getPendingCount() > 0) {
+            logger.info("Recovered " + getPendingCount() + " journaled writes, replaying once storage is reachable");
+        }
+    }
+
+    private static void removeIfSequence(Map<UUID, Entry> pending, Entry ack) {
+        pending.computeIfPresent(ack.playerId, (id, entry) -> entry.sequence == ack.sequence ? null : entry);
+    }
+
+    private void tick() {
+        try {
+            if (getPendingCount() > 0 && System.currentTimeMillis() >= nextReplayAt) {
+                replay();
+            }
+            // Pending set and rewrite under one lock, so no append lands between them
+            synchronized (journal) {
+                if (getPendingCount() == 0 ? journal.size() > TRUNCATE_BYTES : journal.size() > COMPACT_BYTES) {
+                    List<Entry> pending = new ArrayList<>(pendingSnapshots.values());
+                    pending.addAll(pendingBalances.values());
+                    pending.sort(Comparator.comparingLong(entry -> entry.sequence));
+                    journal.checkpoint(pending);
+                }
+            }
+            journal.sync();
+        } catch (Exception e) {
+            logger.warning("Write journal maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void replay() {
+        List<Entry> pending = new ArrayList<>(pendingSnapshots.values());
+        pending.addAll(pendingBalances.values());
+        pending.sort(Comparator.comparingLong(entry -> entry.sequence));
+
+        int replayed = 0;
+        for (Entry entry : pending) {
+            if (!replay(entry)) {
+                // Still unreachable, back off instead of retrying the whole backlog every tick
+                replayDelay = Math.min(REPLAY_MAX_MILLIS, replayDelay * 2);
+                nextReplayAt = System.currentTimeMillis() + replayDelay;
+                return;
+            }
+            replayed++;
+        }
+        replayDelay = REPLAY_MIN_MILLIS;
+        nextReplayAt = 0L;
+        if (replayed > 0) {
+            logger.info("Replayed " + replayed + " journaled writes");
+        }
+    }
+
+    private boolean replay(Entry entry) {
+        if (entry.type == WriteAheadJournal.ECONOMY) {
+            if (!delegate.saveEconomy(entry.playerId, entry.balance)) {
+                return false;
+            }
+            acknowledge(pendingBalances, entry);
+            return true;
+        }
+        InventoryData current = delegate.loadInventory(entry.playerId);
+        if (current != null && current.timestamp >= entry.timestamp) {
+            logger.fine("Dropping journaled inventory for " + entry.playerId + ", storage holds a newer snapshot");
+            acknowledge(pendingSnapshots, entry);
+            return true;
+        }
+        InventoryData data;
+        try {
+            data = codec.decode(entry.json);
+        } catch (Exception e) {
+            logger.warning("Dropping unreadable journaled inventory for " + entry.playerId + ": " + e.getMessage());
+            acknowledge(pendingSnapshots, entry);
+            return true;
+        }
+        if (delegate.saveInventory(entry.playerId, data) <= 0) {
+            return false;
+        }
+        acknowledge(pendingSnapshots, entry);
+        return true;
+    }
+
+    private void acknowledge(Map<UUID, Entry> pending, UUID playerId) {
+        Entry entry = pending.get(playerId);
+        if (entry != null) {
+            acknowledge(pending, entry);
+        }
+    }
+
+    /**
+     * Acknowledge exactly this entry; a newer write journaled for the same player meanwhile stays pending.
+     */
+    private void acknowledge(Map<UUID, Entry> pending, Entry entry) {
+        if (entry == null || !pending.remove(entry.playerId, entry)) {
+            return;
+        }
+        try {
+            journal.appendAck(entry.playerId, entry.sequence);
+        } catch (IOException e) {
+            logger.warning("Failed to journal acknowledgement for " + entry.playerId + ": " + e.getMessage());
+        }
+    }
+}
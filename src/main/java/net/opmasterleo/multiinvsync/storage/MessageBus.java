@@ -0,0 +1,64 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Cross-server messaging used by the sync manager.
+ * Messages never echo back to the server that published them.
+ */
+public interface MessageBus {
+    
+    void start(Consumer<SyncMessage> messageHandler);
+    
+    /**
+     * Called after the bus recovers from an outage during which messages may have been lost.
+     */
+    void setReconnectListener(Runnable reconnectListener);
+    
+    void publishInventoryUpdate(UUID playerId, String targetServerId, long version);
+    
+    void broadcastInventoryUpdate(UUID playerId, long version, String teamId, String payload);
+    
+    void publishServerSwitch(UUID playerId, String sourceServerId, String targetServerId);
+    
+    /**
+     * Ask every server whether it holds the player, so their owner sends a handoff on quit.
+     */
+    void requestHandoff(UUID playerId);
+    
+    /**
+     * Push the final snapshot of a departing player straight to the server they are joining.
+     * {@code version} fences out older snapshots on the target.
+     */
+    void sendHandoff(UUID playerId, String targetServerId, long version, String payload, Double balance);
+    
+    void acknowledgeHandoff(UUID playerId, String sourceServerId, long version);
+    
+    /**
+     * Ask the server holding the player's archived snapshot to restore it into storage.
+     */
+    void requestRehydrate(UUID playerId, String archivingServerId);
+    
+    void broadcastPlayerDeath(UUID playerId, String teamId);
+    
+    /**
+     * {@code version} orders updates to the same balance; 0 when unordered.
+     */
+    void broadcastEconomyUpdate(UUID playerId, double balance, String teamId, long version);
+    
+    /**
+     * Tell the team's other servers that this server gained its first, or lost its last, member of the team.
+     */
+    void announcePresence(String teamId, boolean present);
+    
+    void subscribeToTeam(String teamId);
+    
+    void unsubscribeFromTeam(String teamId);
+    
+    ConnectionState getConnectionState();
+    
+    long getReconnectCount();
+    
+    void shutdown();
+}
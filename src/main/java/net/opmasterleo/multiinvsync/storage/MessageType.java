@@ -0,0 +1,16 @@
+package net.opmasterleo.multiinvsync.storage;
+
+/**
+ * Message types for cross-server communication.
+ */
+public enum MessageType {
+    INVENTORY_UPDATE,
+    SERVER_SWITCH,
+    PLAYER_DEATH,
+    ECONOMY_UPDATE,
+    HANDOFF_REQUEST,
+    HANDOFF,
+    HANDOFF_ACK,
+    PRESENCE,
+    REHYDRATE_REQUEST
+}
@@ -0,0 +1,21 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.util.UUID;
+
+/**
+ * Decoded cross-server message, as delivered by any {@link MessageBus}.
+ */
+public class SyncMessage {
+    public String channel;
+    public MessageType type;
+    public UUID playerId;
+    public int sourceId;
+    public int targetId = -1;
+    public String sourceServer;
+    public String targetServer;
+    public long version;
+    public long timestamp;
+    public String teamId;
+    public double balance;
+    public String payload;
+}
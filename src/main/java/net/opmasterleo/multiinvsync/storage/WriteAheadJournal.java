@@ -0,0 +1,266 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal file holding writes that have not reached the store yet.
+ *
+ * RECORD LAYOUT:
+ * - int length of everything after the checksum
+ * - int CRC32 of everything after the checksum
+ * - byte type, long sequence, long uuid msb, long uuid lsb, long timestamp
+ * - SNAPSHOT: int length + UTF-8 json; ECONOMY: double balance; ACK: nothing
+ *
+ * Appends go through the OS page cache and are forced to disk by {@link #sync()}.
+ * A checkpoint rewrites the file with only the entries still pending, so recovery never
+ * reads more than the tail written since the last checkpoint. Reading stops at the first
+ * torn or corrupt record, which is where a crash interrupted the last append.
+ */
+public class WriteAheadJournal {
+
+    public static final byte SNAPSHOT = 1;
+    public static final byte ECONOMY = 2;
+    public static final byte ACK = 3;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BYTES = 1 + 8 + 16 + 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private final Path file;
+    private final Logger logger;
+    private FileChannel channel;
+    private long sequence;
+    private boolean dirty;
+
+    public WriteAheadJournal(File directory, Logger logger) throws IOException {
+        Files.createDirectories(directory.toPath());
+        this.file = directory.toPath().resolve("writes.journal");
+        this.logger = logger;
+    }
+
+    /**
+     * Read every intact record and open the file for appending after them.
+     */
+    public synchronized List<Entry> open() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (valid + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, valid);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length < FIXED_BYTES || length > MAX_RECORD_BYTES || valid + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            channel.read(body, valid + HEADER_BYTES);
+            body.flip();
+            if (checksum(body) != checksum) {
+                break;
+            }
+            Entry entry = readEntry(body);
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            sequence = Math.max(sequence, entry.sequence);
+            valid += HEADER_BYTES + length;
+        }
+        if (valid < size) {
+            logger.warning("Discarding " + (size - valid) + " bytes of incomplete write journal tail");
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+        return entries;
+    }
+
+    public synchronized Entry appendSnapshot(UUID playerId, long timestamp, String json) throws IOException {
+        Entry entry = new Entry(SNAPSHOT, ++sequence, playerId, timestamp, json, 0.0);
+        append(entry);
+        return entry;
+    }
+
+    public synchronized Entry appendEconomy(UUID playerId, long timestamp, double balance) throws IOException {
+        Entry entry = new Entry(ECONOMY, ++sequence, playerId, timestamp, null, balance);
+        append(entry);
+        return entry;
+    }
+
+    /**
+     * Mark the entry with the given sequence as written to the store.
+     */
+    public synchronized void appendAck(UUID playerId, long ackedSequence) throws IOException {
+        append(new Entry(ACK, ackedSequence, playerId, System.currentTimeMillis(), null, 0.0));
+    }
+
+    /**
+     * Force appended records to disk. Called periodically rather than per append.
+     */
+    public synchronized void sync() {
+        if (!dirty || channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            dirty = false;
+        } catch (IOException e) {
+            logger.warning("Failed to sync write journal: " + e.getMessage());
+        }
+    }
+
+    public synchronized long size() {
+        try {
+            return channel != null ? channel.size() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Replace the file with just the given pending entries. With none left it simply becomes empty.
+     * Callers hold this journal's monitor while collecting {@code pending} and while registering
+     * each appended entry, so an append can never fall between the two and be dropped.
+     */
+    public synchronized void checkpoint(Collection<Entry> pending) throws IOException {
+        if (pending.isEmpty()) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            dirty = false;
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : pending) {
+                write(out, entry);
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        dirty = false;
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close write journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private void append(Entry entry) throws IOException {
+        if (channel == null) {
+            throw new IOException("Write journal is closed");
+        }
+        write(channel, entry);
+        dirty = true;
+    }
+
+    private static void write(FileChannel target, Entry entry) throws IOException {
+        byte[] json = entry.json != null ? entry.json.getBytes(StandardCharsets.UTF_8) : null;
+        int length = FIXED_BYTES + switch (entry.type) {
+            case SNAPSHOT -> 4 + json.length;
+            case ECONOMY -> 8;
+            default -> 0;
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length);
+        buffer.position(HEADER_BYTES);
+        buffer.put(entry.type);
+        buffer.putLong(entry.sequence);
+        buffer.putLong(entry.playerId.getMostSignificantBits());
+        buffer.putLong(entry.playerId.getLeastSignificantBits());
+        buffer.putLong(entry.timestamp);
+        if (entry.type == SNAPSHOT) {
+            buffer.putInt(json.length);
+            buffer.put(json);
+        } else if (entry.type == ECONOMY) {
+            buffer.putDouble(entry.balance);
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_BYTES);
+        body.limit(buffer.position());
+        buffer.putInt(0, length);
+        buffer.putInt(4, checksum(body));
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    private static int checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static Entry readEntry(ByteBuffer body) {
+        byte type = body.get();
+        long sequence = body.getLong();
+        UUID playerId = new UUID(body.getLong(), body.getLong());
+        long timestamp = body.getLong();
+        switch (type) {
+            case SNAPSHOT: {
+                if (body.remaining() < 4) {
+                    return null;
+                }
+                byte[] json = new byte[body.getInt()];
+                if (json.length != body.remaining()) {
+                    return null;
+                }
+                body.get(json);
+                return new Entry(type, sequence, playerId, timestamp, new String(json, StandardCharsets.UTF_8), 0.0);
+            }
+            case ECONOMY:
+                return body.remaining() == 8 ? new Entry(type, sequence, playerId, timestamp, null, body.getDouble()) : null;
+            case ACK:
+                return new Entry(type, sequence, playerId, timestamp, null, 0.0);
+            default:
+                return null;
+        }
+    }
+
+    public static class Entry {
+        public final byte type;
+        public final long sequence;
+        public final UUID playerId;
+        public final long timestamp;
+        public final String json;
+        public final double balance;
+
+        Entry(byte type, long sequence, UUID playerId, long timestamp, String json, double balance) {
+            this.type = type;
+            this.sequence = sequence;
+            this.playerId = playerId;
+            this.timestamp = timestamp;
+            this.json = json;
+            this.balance = balance;
+        }
+    }
+}
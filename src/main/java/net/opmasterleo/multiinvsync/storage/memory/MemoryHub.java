@@ -0,0 +1,123 @@
+package net.opmasterleo.multiinvsync.storage.memory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+
+/**
+ * Shared state behind the in-memory backend: the "server" that every
+ * {@link MemoryInventoryStore} and {@link MemoryMessageBus} in this JVM talks to.
+ *
+ * Several stores and buses attached to one hub behave like several servers sharing one Redis,
+ * which lets the cross-server logic run in a single JVM. Messages are delivered on a
+ * dedicated thread, never on the publisher's, to keep the same asynchrony as Pub/Sub.
+ * Expired entries are dropped on read and by a sweep every minute.
+ * The delivery thread only runs while a bus is attached, so it does not outlive the plugin.
+ */
+public class MemoryHub {
+
+    private static final MemoryHub SHARED = new MemoryHub();
+
+    final Map<UUID, Expiring<StoredSnapshot>> inventories = new ConcurrentHashMap<>();
+    final Map<UUID, Expiring<Double>> balances = new ConcurrentHashMap<>();
+    final Map<String, Expiring<Set<UUID>>> serverPlayers = new ConcurrentHashMap<>();
+    private final Set<MemoryMessageBus> buses = new CopyOnWriteArraySet<>();
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * A hub of its own, separate from {@link #shared()}, e.g. for a test network.
+     */
+    public MemoryHub() {
+    }
+
+    /**
+     * Hub used by the plugin when the memory backend is configured.
+     */
+    public static MemoryHub shared() {
+        return SHARED;
+    }
+
+    synchronized void attach(MemoryMessageBus bus) {
+        buses.add(bus);
+        if (executor == null) {
+            ScheduledExecutorService started = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Memory-Hub");
+                t.setDaemon(true);
+                return t;
+            });
+            started.scheduleWithFixedDelay(this::sweep, 60, 60, TimeUnit.SECONDS);
+            executor = started;
+        }
+    }
+
+    /**
+     * Stops the delivery thread once the last bus is gone; queued deliveries still run.
+     */
+    synchronized void detach(MemoryMessageBus bus) {
+        buses.remove(bus);
+        if (buses.isEmpty() && executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Deliver to every other attached bus subscribed to the channel.
+     */
+    void publish(MemoryMessageBus source, String channel, SyncMessage message) {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.execute(() -> {
+                for (MemoryMessageBus bus : buses) {
+                    if (bus != source && bus.isSubscribed(channel)) {
+                        bus.deliver(channel, message);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The last bus detached meanwhile, nobody is left to deliver to
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        inventories.values().removeIf(entry -> !entry.isLive(now));
+        balances.values().removeIf(entry -> !entry.isLive(now));
+        serverPlayers.values().removeIf(entry -> !entry.isLive(now));
+    }
+
+    static class Expiring<T> {
+        final T value;
+        final long expiresAt;
+
+        Expiring(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isLive(long now) {
+            return now < expiresAt;
+        }
+    }
+
+    static class StoredSnapshot {
+        final String json;
+        final long version;
+
+        StoredSnapshot(String json, long version) {
+            this.json = json;
+            this.version = version;
+        }
+    }
+}
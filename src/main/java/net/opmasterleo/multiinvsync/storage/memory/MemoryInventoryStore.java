@@ -0,0 +1,121 @@
+package net.opmasterleo.multiinvsync.storage.memory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import net.opmasterleo.multiinvsync.storage.InventoryCodec;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
+import net.opmasterleo.multiinvsync.storage.InventoryStore;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryHub.Expiring;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryHub.StoredSnapshot;
+
+/**
+ * In-memory {@link InventoryStore} with the same versioning and TTLs as the Redis backend.
+ * Snapshots are kept in serialized form so a load never shares item instances with the saver.
+ */
+public class MemoryInventoryStore implements InventoryStore {
+
+    private static final long TTL_MILLIS = 43200L * 1000L;
+    private static final long PRESENCE_TTL_MILLIS = 300L * 1000L;
+
+    private final MemoryHub hub;
+    private final Logger logger;
+    private final InventoryCodec codec;
+
+    public MemoryInventoryStore(MemoryHub hub, Logger logger) {
+        this.hub = hub;
+        this.logger = logger;
+        this.codec = new InventoryCodec(logger);
+    }
+
+    @Override
+    public long saveInventory(UUID playerId, InventoryData data) {
+        try {
+            long now = System.currentTimeMillis();
+            Expiring<StoredSnapshot> saved = hub.inventories.compute(playerId, (id, old) -> {
+                long version = old != null && old.isLive(now) ? old.value.version + 1 : 1;
+                data.version = version;
+                data.timestamp = now;
+                return new Expiring<>(new StoredSnapshot(codec.encode(data), version), now + TTL_MILLIS);
+            });
+            data.payload = saved.value.json;
+            logger.fine("Saved inventory for " + playerId + " (version: " + data.version + ")");
+            return data.version;
+        } catch (Exception e) {
+            logger.warning("Failed to save inventory for " + playerId + ": " + e.getMessage());
+            return -1L;
+        }
+    }
+
+    @Override
+    public InventoryData loadInventory(UUID playerId) {
+        Expiring<StoredSnapshot> stored = hub.inventories.get(playerId);
+        if (stored == null || !stored.isLive(System.currentTimeMillis())) {
+            return null;
+        }
+        try {
+            return codec.decode(stored.value.json);
+        } catch (Exception e) {
+            logger.warning("Failed to load inventory for " + playerId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public InventoryData decodeInventory(String payload) {
+        return codec.decode(payload);
+    }
+
+    @Override
+    public boolean saveEconomy(UUID playerId, double balance) {
+        hub.balances.put(playerId, new Expiring<>(balance, System.currentTimeMillis() + TTL_MILLIS));
+        return true;
+    }
+
+    @Override
+    public Double loadEconomy(UUID playerId) {
+        Expiring<Double> stored = hub.balances.get(playerId);
+        return stored != null && stored.isLive(System.currentTimeMillis()) ? stored.value : null;
+    }
+
+    @Override
+    public void registerPlayer(UUID playerId, String serverId) {
+        long now = System.currentTimeMillis();
+        hub.serverPlayers.compute(serverId, (id, old) -> {
+            Set<UUID> players = old != null && old.isLive(now) ? old.value : ConcurrentHashMap.newKeySet();
+            players.add(playerId);
+            return new Expiring<>(players, now + PRESENCE_TTL_MILLIS);
+        });
+    }
+
+    @Override
+    public void unregisterPlayer(UUID playerId, String serverId) {
+        Expiring<Set<UUID>> players = hub.serverPlayers.get(serverId);
+        if (players != null) {
+            players.value.remove(playerId);
+        }
+    }
+
+    @Override
+    public boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Expiring<Set<UUID>>> entry : hub.serverPlayers.entrySet()) {
+            if (entry.getKey().equals(currentServerId) || !entry.getValue().isLive(now)) {
+                continue;
+            }
+            if (entry.getValue().value.contains(playerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void deletePlayer(UUID playerId) {
+        hub.inventories.remove(playerId);
+        hub.balances.remove(playerId);
+    }
+}
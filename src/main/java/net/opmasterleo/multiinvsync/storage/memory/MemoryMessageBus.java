@@ -0,0 +1,201 @@
+package net.opmasterleo.multiinvsync.storage.memory;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import net.opmasterleo.multiinvsync.storage.ConnectionState;
+import net.opmasterleo.multiinvsync.storage.MessageBus;
+import net.opmasterleo.multiinvsync.storage.MessageType;
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+
+/**
+ * In-memory {@link MessageBus} using the same channel layout as the Redis backend.
+ * Every receiver gets its own copy of a message.
+ */
+public class MemoryMessageBus implements MessageBus {
+
+    private static final String CHANNEL_GLOBAL = "mis:g";
+
+    private final MemoryHub hub;
+    private final Logger logger;
+    private final String serverId;
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<SyncMessage> messageHandler;
+    private volatile ConnectionState state = ConnectionState.STOPPED;
+
+    public MemoryMessageBus(MemoryHub hub, Logger logger, String serverId) {
+        this.hub = hub;
+        this.logger = logger;
+        this.serverId = serverId;
+    }
+
+    @Override
+    public void start(Consumer<SyncMessage> messageHandler) {
+        this.messageHandler = messageHandler;
+        channels.add(getServerChannel(serverId));
+        channels.add(CHANNEL_GLOBAL);
+        hub.attach(this);
+        state = ConnectionState.CONNECTED;
+        logger.info("In-memory messaging started for server: " + serverId);
+    }
+
+    @Override
+    public void setReconnectListener(Runnable reconnectListener) {
+        // An in-process bus never disconnects
+    }
+
+    @Override
+    public void publishInventoryUpdate(UUID playerId, String targetServerId, long version) {
+        SyncMessage message = create(MessageType.INVENTORY_UPDATE, playerId, null);
+        message.targetServer = targetServerId;
+        message.version = version;
+        publish(getServerChannel(targetServerId), message);
+    }
+
+    @Override
+    public void broadcastInventoryUpdate(UUID playerId, long version, String teamId, String payload) {
+        SyncMessage message = create(MessageType.INVENTORY_UPDATE, playerId, teamId);
+        message.version = version;
+        message.payload = payload;
+        publish(getGroupChannel(teamId), message);
+    }
+
+    @Override
+    public void publishServerSwitch(UUID playerId, String sourceServerId, String targetServerId) {
+        SyncMessage message = create(MessageType.SERVER_SWITCH, playerId, null);
+        message.targetServer = targetServerId;
+        publish(getServerChannel(targetServerId), message);
+    }
+
+    @Override
+    public void requestHandoff(UUID playerId) {
+        publish(CHANNEL_GLOBAL, create(MessageType.HANDOFF_REQUEST, playerId, null));
+    }
+
+    @Override
+    public void sendHandoff(UUID playerId, String targetServerId, long version, String payload, Double balance) {
+        SyncMessage message = create(MessageType.HANDOFF, playerId, null);
+        message.targetServer = targetServerId;
+        message.version = version;
+        message.payload = payload;
+        message.balance = balance != null ? balance : 0.0;
+        publish(getServerChannel(targetServerId), message);
+    }
+
+    @Override
+    public void acknowledgeHandoff(UUID playerId, String sourceServerId, long version) {
+        SyncMessage message = create(MessageType.HANDOFF_ACK, playerId, null);
+        message.targetServer = sourceServerId;
+        message.version = version;
+        publish(getServerChannel(sourceServerId), message);
+    }
+
+    @Override
+    public void requestRehydrate(UUID playerId, String archivingServerId) {
+        SyncMessage message = create(MessageType.REHYDRATE_REQUEST, playerId, null);
+        message.targetServer = archivingServerId;
+        publish(getServerChannel(archivingServerId), message);
+    }
+
+    @Override
+    public void broadcastPlayerDeath(UUID playerId, String teamId) {
+        publish(getGroupChannel(teamId), create(MessageType.PLAYER_DEATH, playerId, teamId));
+    }
+
+    @Override
+    public void broadcastEconomyUpdate(UUID playerId, double balance, String teamId, long version) {
+        SyncMessage message = create(MessageType.ECONOMY_UPDATE, playerId, teamId);
+        message.balance = balance;
+        message.version = version;
+        publish(getGroupChannel(teamId), message);
+    }
+
+    @Override
+    public void announcePresence(String teamId, boolean present) {
+        SyncMessage message = create(MessageType.PRESENCE, UUID.fromString(teamId), teamId);
+        message.version = present ? 1L : 0L;
+        publish(getGroupChannel(teamId), message);
+    }
+
+    @Override
+    public void subscribeToTeam(String teamId) {
+        channels.add(getGroupChannel(teamId));
+    }
+
+    @Override
+    public void unsubscribeFromTeam(String teamId) {
+        channels.remove(getGroupChannel(teamId));
+    }
+
+    @Override
+    public ConnectionState getConnectionState() {
+        return state;
+    }
+
+    @Override
+    public long getReconnectCount() {
+        return 0L;
+    }
+
+    @Override
+    public void shutdown() {
+        hub.detach(this);
+        channels.clear();
+        state = ConnectionState.STOPPED;
+        logger.info("In-memory messaging stopped");
+    }
+
+    boolean isSubscribed(String channel) {
+        return channels.contains(channel);
+    }
+
+    void deliver(String channel, SyncMessage message) {
+        Consumer<SyncMessage> handler = messageHandler;
+        if (handler == null) {
+            return;
+        }
+        SyncMessage copy = new SyncMessage();
+        copy.channel = channel;
+        copy.type = message.type;
+        copy.playerId = message.playerId;
+        copy.sourceServer = message.sourceServer;
+        copy.targetServer = message.targetServer;
+        copy.version = message.version;
+        copy.timestamp = message.timestamp;
+        copy.teamId = message.teamId;
+        copy.balance = message.balance;
+        copy.payload = message.payload;
+        try {
+            handler.accept(copy);
+        } catch (Exception e) {
+            logger.warning("Failed to process message from " + channel + ": " + e.getMessage());
+        }
+    }
+
+    private void publish(String channel, SyncMessage message) {
+        if (state == ConnectionState.CONNECTED) {
+            hub.publish(this, channel, message);
+        }
+    }
+
+    private SyncMessage create(MessageType type, UUID playerId, String teamId) {
+        SyncMessage message = new SyncMessage();
+        message.type = type;
+        message.playerId = playerId;
+        message.sourceServer = serverId;
+        message.teamId = teamId;
+        message.timestamp = System.currentTimeMillis();
+        return message;
+    }
+
+    private static String getServerChannel(String serverId) {
+        return "mis:u:" + serverId;
+    }
+
+    private static String getGroupChannel(String teamId) {
+        return teamId != null ? "mis:t:" + teamId : CHANNEL_GLOBAL;
+    }
+}
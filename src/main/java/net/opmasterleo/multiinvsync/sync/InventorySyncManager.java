@@ -1,5 +1,6 @@
 package net.opmasterleo.multiinvsync.sync;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -7,6 +8,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.bukkit.Bukkit;
 import org.bukkit.craftbukkit.entity.CraftPlayer;
@@ -21,10 +23,35 @@ import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.protocol.game.ServerboundChatCommandPacket;
+import net.minecraft.network.protocol.game.ServerboundChatCommandSignedPacket;
+import net.minecraft.network.protocol.game.ServerboundChatPacket;
+import net.minecraft.network.protocol.game.ServerboundContainerClickPacket;
+import net.minecraft.network.protocol.game.ServerboundInteractPacket;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.network.protocol.game.ServerboundPickItemPacket;
+import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
+import net.minecraft.network.protocol.game.ServerboundPlayerCommandPacket;
+import net.minecraft.network.protocol.game.ServerboundSetCarriedItemPacket;
+import net.minecraft.network.protocol.game.ServerboundSetCreativeModeSlotPacket;
+import net.minecraft.network.protocol.game.ServerboundSwingPacket;
+import net.minecraft.network.protocol.game.ServerboundUseItemOnPacket;
+import net.minecraft.network.protocol.game.ServerboundUseItemPacket;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.ItemStack;
 import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
 
+/**
+ * Copies a player's inventory to the rest of their group on this server.
+ *
+ * Targets who sent no input for {@code sync.idle-defer-seconds} are passive: instead of
+ * applying every update, only the newest snapshot is kept for them and applied when their
+ * next input packet arrives. That packet, and any following it, are held back until the
+ * snapshot is in place, so the interaction always sees the current inventory. Any capture
+ * of such a player (local fan-out, Redis save, quit, shutdown flush) applies the parked
+ * snapshot first, so a stale inventory is never spread or persisted.
+ */
 public class InventorySyncManager {
     
     private final MultiInvSyncPlugin plugin;
@@ -34,6 +61,8 @@ public class InventorySyncManager {
     private final Set<UUID> processingSync = ConcurrentHashMap.newKeySet();
     private final Set<UUID> queuedSync = ConcurrentHashMap.newKeySet();
     private final Map<UUID, Long> snapshotSignatures = new ConcurrentHashMap<>();
+    private final Map<UUID, InventoryPacketHandler> handlers = new ConcurrentHashMap<>();
+    private final SyncScope scope;
     
     private volatile boolean syncMainInventory;
     private volatile boolean syncArmor;
@@ -47,9 +76,11 @@ public class InventorySyncManager {
     private volatile boolean syncEffects;
     private volatile int syncDelayTicks;
     private volatile boolean logSyncEvents;
+    private volatile long idleDeferMillis;
     
     public InventorySyncManager(MultiInvSyncPlugin plugin) {
         this.plugin = plugin;
+        this.scope = new SyncScope(plugin);
         refreshConfigCache();
     }
     
@@ -66,9 +97,11 @@ public class InventorySyncManager {
         syncEffects = plugin.getConfigManager().isSyncEffects();
         syncDelayTicks = plugin.getConfigManager().getSyncDelayTicks();
         logSyncEvents = plugin.getConfigManager().isLogSyncEvents();
+        idleDeferMillis = plugin.getConfigManager().getIdleDeferSeconds() * 1000L;
     }
     
     public void initialize() {
+        scope.configure();
         for (Player player : Bukkit.getOnlinePlayers()) {
             injectPlayer(player);
         }
@@ -76,6 +109,7 @@ public class InventorySyncManager {
     }
     
     public void shutdown() {
+        scope.shutdown();
         for (Player player : Bukkit.getOnlinePlayers()) {
             uninjectPlayer(player);
         }
@@ -91,118 +125,194 @@ public class InventorySyncManager {
             if (!source.isOnline()) {
                 return;
             }
-            syncInventory(source);
-            if (persist && plugin.getCrossServerSyncManager() != null && plugin.getCrossServerSyncManager().isEnabled()) {
-                plugin.getCrossServerSyncManager().saveInventoryToRedis(source, true);
-            }
+            boolean save = persist && plugin.getCrossServerSyncManager() != null && plugin.getCrossServerSyncManager().isEnabled();
+            syncInventory(source, save);
         }, delayTicks);
     }
 
     public void syncInventory(Player source) {
+        syncInventory(source, false);
+    }
+    
+    /**
+     * Capture the source once and feed the same snapshot to local fan-out and, if
+     * {@code persist}, to the Redis save. Throttling only limits the fan-out.
+     */
+    private void syncInventory(Player source, boolean persist) {
         UUID sourceId = source.getUniqueId();
-        if (bypassPlayers.contains(sourceId)) {
+        boolean fanOut = claimFanOut(sourceId);
+        if (!fanOut && !persist) {
             return;
         }
+        
+        // Schedule on Source Region/Thread to capture state
+        plugin.getScheduler().runAtEntity(source, () -> {
+            try {
+                if (!source.isOnline()) return;
+                
+                InventorySnapshot snapshot = captureSnapshot(source);
+                if (fanOut) {
+                    distribute(source, snapshot);
+                }
+                if (persist) {
+                    plugin.getCrossServerSyncManager().saveInventoryToRedis(source, snapshot.data, true);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(java.util.logging.Level.WARNING, "Sync error", e);
+            } finally {
+                if (fanOut) {
+                    syncingNow.remove(sourceId);
+                }
+            }
+        });
+    }
+    
+    private boolean claimFanOut(UUID sourceId) {
+        if (bypassPlayers.contains(sourceId)) {
+            return false;
+        }
 
         if (processingSync.contains(sourceId)) {
-            return;
+            return false;
         }
         
         long currentTime = System.currentTimeMillis();
         Long lastSync = lastSyncTime.get(sourceId);
         
         if (lastSync != null && currentTime - lastSync < (syncDelayTicks * 50L)) {
-            return;
+            return false;
         }
         
         if (!syncingNow.add(sourceId)) {
-            return; // already syncing this player; avoid re-entrancy
+            return false; // already syncing this player; avoid re-entrancy
         }
         lastSyncTime.put(sourceId, currentTime);
+        return true;
+    }
+    
+    private void distribute(Player source, InventorySnapshot snapshot) {
+        UUID sourceId = source.getUniqueId();
+        long signature = snapshot.signature();
+        Long lastSig = snapshotSignatures.get(sourceId);
+        if (lastSig != null && lastSig == signature) {
+            return;
+        }
+        snapshotSignatures.put(sourceId, signature);
+        Collection<Player> targets = getTargetPlayers(source);
         
-        // Schedule on Source Region/Thread to capture state
-        plugin.getScheduler().runAtEntity(source, () -> {
-            try {
-                if (!source.isOnline()) return;
-                
-                InventorySnapshot snapshot = captureSnapshot(source);
-                long signature = snapshot.computeSignature();
-                Long lastSig = snapshotSignatures.get(sourceId);
-                if (lastSig != null && lastSig == signature) {
-                    return;
-                }
-                snapshotSignatures.put(sourceId, signature);
-                Collection<Player> targets = getTargetPlayers(source);
-                
-                if (targets.isEmpty() || (targets.size() == 1 && targets.contains(source))) return;
-                
-                // Distribute to targets
-                for (Player target : targets) {
-                    if (target.getUniqueId().equals(sourceId)) continue;
-                    plugin.getScheduler().runAtEntity(target, () -> applySnapshot(target, snapshot));
-                }
-                
-                if (logSyncEvents) {
-                    int targetCount = targets.size() - 1;
-                    plugin.getLogger().info(String.format("Synced inventory from %s to %d players", 
-                        source.getName(), targetCount));
-                }
-            } catch (Exception e) {
-                plugin.getLogger().log(java.util.logging.Level.WARNING, "Sync error", e);
-            } finally {
-                syncingNow.remove(sourceId);
+        if (targets.isEmpty() || (targets.size() == 1 && targets.contains(source))) return;
+        
+        // Distribute to targets
+        long now = System.currentTimeMillis();
+        int deferred = 0;
+        for (Player target : targets) {
+            if (target.getUniqueId().equals(sourceId)) continue;
+            if (deferIfIdle(target, snapshot, now)) {
+                deferred++;
+                continue;
             }
-        });
+            plugin.getScheduler().runAtEntity(target, () -> applySnapshot(target, snapshot));
+        }
+        
+        if (logSyncEvents) {
+            int targetCount = targets.size() - 1;
+            plugin.getLogger().info(String.format("Synced inventory from %s to %d players (%d idle, deferred)", 
+                source.getName(), targetCount, deferred));
+        }
     }
 
-    private InventorySnapshot captureSnapshot(Player source) {
-        int itemCapacity = (syncMainInventory ? 36 : 0) + (syncArmor ? 4 : 0) + (syncOffhand ? 1 : 0);
-        List<ItemStack> items = itemCapacity > 0 ? new ArrayList<>(itemCapacity) : null;
+    /**
+     * Park the snapshot for a target that has been idle long enough. A newer snapshot
+     * replaces an older one, so an idle player costs one apply no matter how many updates pass.
+     */
+    private boolean deferIfIdle(Player target, InventorySnapshot snapshot, long now) {
+        long idleAfter = idleDeferMillis;
+        if (idleAfter <= 0) {
+            return false;
+        }
+        InventoryPacketHandler handler = handlers.get(target.getUniqueId());
+        if (handler == null || now - handler.lastInput < idleAfter) {
+            return false;
+        }
+        handler.pending.set(snapshot);
+        return true;
+    }
+    
+    /**
+     * Apply a deferred snapshot now instead of on the player's next input. Runs on the player's thread.
+     */
+    private void applyPending(Player player) {
+        InventoryPacketHandler handler = handlers.get(player.getUniqueId());
+        InventorySnapshot snapshot = handler != null ? handler.pending.getAndSet(null) : null;
+        if (snapshot != null) {
+            applySnapshot(player, snapshot);
+        }
+    }
+    
+    /**
+     * Drop a deferred snapshot that was made obsolete, e.g. by a death clear or a cross-server load.
+     */
+    public void discardPending(UUID playerId) {
+        InventoryPacketHandler handler = handlers.get(playerId);
+        if (handler != null) {
+            handler.pending.set(null);
+        }
+    }
+    
+    /**
+     * The synced slots and experience in the form every consumer shares: local apply,
+     * signature checks and Redis serialization.
+     */
+    public InventoryData captureData(Player source) {
+        applyPending(source);
+        InventoryData data = new InventoryData();
+        data.scope = scope.isActive() ? scope.scopeOf(source) : null;
         PlayerInventory inv = source.getInventory();
-        int srcLevel = 0;
-        int srcTotalXp = 0;
-        float srcExp = 0.0F;
-        double health = 0.0;
-        int foodLevel = 0;
-        float saturation = 0.0F;
-        Pose pose = null;
-        Collection<PotionEffect> effects = null;
-
+        
         if (syncMainInventory) {
+            data.mainInventory = new ArrayList<>(36);
             for (int i = 0; i < 36; i++) {
-                items.add(CraftItemStack.asNMSCopy(inv.getItem(i)));
+                data.mainInventory.add(CraftItemStack.asNMSCopy(inv.getItem(i)));
             }
         }
         
-        if (syncArmor && items != null) {
-            items.add(CraftItemStack.asNMSCopy(inv.getHelmet()));
-            items.add(CraftItemStack.asNMSCopy(inv.getChestplate()));
-            items.add(CraftItemStack.asNMSCopy(inv.getLeggings()));
-            items.add(CraftItemStack.asNMSCopy(inv.getBoots()));
+        if (syncArmor) {
+            data.armorContents = new ArrayList<>(4);
+            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getHelmet()));
+            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getChestplate()));
+            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getLeggings()));
+            data.armorContents.add(CraftItemStack.asNMSCopy(inv.getBoots()));
         }
         
-        if (syncOffhand && items != null) {
-            items.add(CraftItemStack.asNMSCopy(inv.getItemInOffHand()));
-        }
-
-        ItemStack cursorItem = null;
-        if (syncCursor) {
-            cursorItem = CraftItemStack.asNMSCopy(source.getItemOnCursor());
+        if (syncOffhand) {
+            data.offhand = CraftItemStack.asNMSCopy(inv.getItemInOffHand());
         }
 
-        List<ItemStack> enderItems = null;
         if (syncEnderChest) {
-            enderItems = new ArrayList<>(27);
+            data.enderChest = new ArrayList<>(27);
             for (int i = 0; i < 27; i++) {
-                enderItems.add(CraftItemStack.asNMSCopy(source.getEnderChest().getItem(i)));
+                data.enderChest.add(CraftItemStack.asNMSCopy(source.getEnderChest().getItem(i)));
             }
         }
         
+        if (syncCursor) {
+            data.cursor = CraftItemStack.asNMSCopy(source.getItemOnCursor());
+        }
+        
         if (syncExperience) {
-            srcLevel = source.getLevel();
-            srcTotalXp = source.getTotalExperience();
-            srcExp = source.getExp();
+            data.xpLevel = source.getLevel();
+            data.xpTotal = source.getTotalExperience();
+            data.xpExp = source.getExp();
         }
+        return data;
+    }
+
+    private InventorySnapshot captureSnapshot(Player source) {
+        double health = 0.0;
+        int foodLevel = 0;
+        float saturation = 0.0F;
+        Pose pose = null;
+        Collection<PotionEffect> effects = null;
         
         if (syncHealth) {
             health = source.getHealth();
@@ -224,8 +334,7 @@ public class InventorySyncManager {
             }
         }
         
-        return new InventorySnapshot(items, enderItems, cursorItem, srcLevel, srcTotalXp, srcExp, 
-                                      health, foodLevel, saturation, pose, effects);
+        return new InventorySnapshot(captureData(source), health, foodLevel, saturation, pose, effects);
     }
     
     private void applySnapshot(Player target, InventorySnapshot snapshot) {
@@ -240,40 +349,38 @@ public class InventorySyncManager {
             ServerPlayer nmsTarget = ((CraftPlayer) target).getHandle();
             PlayerInventory targetInv = target.getInventory();
             
-            if (snapshot.items != null) {
-                int slot = 0;
-                if (syncMainInventory) {
-                    for (int i = 0; i < 36 && slot < snapshot.items.size(); i++) {
-                        setItemIfChanged(targetInv, i, snapshot.items.get(slot++));
-                    }
+            InventoryData data = snapshot.data;
+            if (syncMainInventory) {
+                for (int i = 0; i < 36 && i < data.mainInventory.size(); i++) {
+                    setItemIfChanged(targetInv, i, data.mainInventory.get(i));
                 }
+            }
 
-                if (syncArmor && slot + 3 < snapshot.items.size()) {
-                    setItemIfChanged(targetInv, 39, snapshot.items.get(slot++)); // Helmet
-                    setItemIfChanged(targetInv, 38, snapshot.items.get(slot++)); // Chest
-                    setItemIfChanged(targetInv, 37, snapshot.items.get(slot++)); // Legs
-                    setItemIfChanged(targetInv, 36, snapshot.items.get(slot++)); // Boots
-                }
+            if (syncArmor && data.armorContents.size() >= 4) {
+                setItemIfChanged(targetInv, 39, data.armorContents.get(0)); // Helmet
+                setItemIfChanged(targetInv, 38, data.armorContents.get(1)); // Chest
+                setItemIfChanged(targetInv, 37, data.armorContents.get(2)); // Legs
+                setItemIfChanged(targetInv, 36, data.armorContents.get(3)); // Boots
+            }
 
-                if (syncOffhand && slot < snapshot.items.size()) {
-                    setItemIfChanged(targetInv, 40, snapshot.items.get(slot));
-                }
+            if (syncOffhand && data.offhand != null) {
+                setItemIfChanged(targetInv, 40, data.offhand);
             }
             
-            if (syncCursor && snapshot.cursorItem != null) {
-                target.setItemOnCursor(CraftItemStack.asBukkitCopy(snapshot.cursorItem));
+            if (syncCursor && data.cursor != null) {
+                target.setItemOnCursor(CraftItemStack.asBukkitCopy(data.cursor));
             }
 
-            if (syncEnderChest && snapshot.enderItems != null) {
-                for (int i = 0; i < 27 && i < snapshot.enderItems.size(); i++) {
-                    target.getEnderChest().setItem(i, CraftItemStack.asBukkitCopy(snapshot.enderItems.get(i)));
+            if (syncEnderChest) {
+                for (int i = 0; i < 27 && i < data.enderChest.size(); i++) {
+                    target.getEnderChest().setItem(i, CraftItemStack.asBukkitCopy(data.enderChest.get(i)));
                 }
             }
 
-            if (syncExperience && target.getTotalExperience() != snapshot.xpTotal) {
-                target.setTotalExperience(snapshot.xpTotal);
-                target.setLevel(snapshot.xpLevel);
-                target.setExp(snapshot.xpExp);
+            if (syncExperience && data.xpLevel >= 0 && target.getTotalExperience() != data.xpTotal) {
+                target.setTotalExperience(data.xpTotal);
+                target.setLevel(data.xpLevel);
+                target.setExp(data.xpExp);
             }
             
             if (syncHealth && snapshot.health > 0) {
@@ -372,28 +479,22 @@ public class InventorySyncManager {
         inv.setItem(slot, bukkitItem);
     }
     
+    /**
+     * One capture of a player: the stored {@link InventoryData} plus state that is only synced locally.
+     */
     private static class InventorySnapshot {
-        final List<ItemStack> items;
-        final List<ItemStack> enderItems;
-        final ItemStack cursorItem;
-        final int xpLevel;
-        final int xpTotal;
-        final float xpExp;
+        final InventoryData data;
         final double health;
         final int foodLevel;
         final float saturation;
         final Pose pose;
         final Collection<PotionEffect> effects;
+        private long signature;
+        private boolean signed;
         
-        InventorySnapshot(List<ItemStack> items, List<ItemStack> enderItems, ItemStack cursorItem, 
-                         int xpLevel, int xpTotal, float xpExp, double health, int foodLevel, 
+        InventorySnapshot(InventoryData data, double health, int foodLevel, 
                          float saturation, Pose pose, Collection<PotionEffect> effects) {
-            this.items = items;
-            this.enderItems = enderItems;
-            this.cursorItem = cursorItem;
-            this.xpLevel = xpLevel;
-            this.xpTotal = xpTotal;
-            this.xpExp = xpExp;
+            this.data = data;
             this.health = health;
             this.foodLevel = foodLevel;
             this.saturation = saturation;
@@ -401,22 +502,30 @@ public class InventorySyncManager {
             this.effects = effects;
         }
 
-        long computeSignature() {
+        long signature() {
+            if (!signed) {
+                signature = computeSignature();
+                signed = true;
+            }
+            return signature;
+        }
+
+        private long computeSignature() {
             long h = 1125899906842597L;
-            if (items != null) {
-                for (ItemStack stack : items) {
-                    h = 31 * h + fastHash(stack);
-                }
+            for (ItemStack stack : data.mainInventory) {
+                h = 31 * h + fastHash(stack);
             }
-            if (enderItems != null) {
-                for (ItemStack stack : enderItems) {
-                    h = 31 * h + fastHash(stack);
-                }
+            for (ItemStack stack : data.armorContents) {
+                h = 31 * h + fastHash(stack);
+            }
+            h = 31 * h + fastHash(data.offhand);
+            for (ItemStack stack : data.enderChest) {
+                h = 31 * h + fastHash(stack);
             }
-            h = 31 * h + fastHash(cursorItem);
-            h = 31 * h + xpLevel;
-            h = 31 * h + xpTotal;
-            h = 31 * h + Float.floatToIntBits(xpExp);
+            h = 31 * h + fastHash(data.cursor);
+            h = 31 * h + data.xpLevel;
+            h = 31 * h + data.xpTotal;
+            h = 31 * h + Float.floatToIntBits(data.xpExp);
             h = 31 * h + Double.hashCode(health);
             h = 31 * h + foodLevel;
             h = 31 * h + Float.floatToIntBits(saturation);
@@ -452,11 +561,63 @@ public class InventorySyncManager {
         player.containerMenu.sendAllDataToRemote();
     }
     
+    /**
+     * Reload the scoping rules; called on plugin reload.
+     */
+    public void refreshScope() {
+        scope.configure();
+    }
+    
+    /**
+     * Whether a snapshot may be applied to the player where they are now: always, unless it was
+     * captured in another scope. Applying it would carry one group's inventory into another.
+     */
+    public boolean sharesScope(Player player, InventoryData data) {
+        return !scope.isActive() || data.scope == null || data.scope.equals(scope.scopeOf(player));
+    }
+    
+    /**
+     * The player entered another scope (world or world group) still holding the inventory of the
+     * one they left. Take over the new group's from a member already there; if there is none,
+     * the player's copy becomes the group's.
+     */
+    public void onScopeChanged(Player player) {
+        discardPending(player.getUniqueId());
+        if (bypassPlayers.contains(player.getUniqueId())) {
+            return;
+        }
+        for (Player member : getTargetPlayers(player)) {
+            if (member == player || bypassPlayers.contains(member.getUniqueId())) {
+                continue;
+            }
+            plugin.getScheduler().runAtEntity(member, () -> {
+                if (!member.isOnline()) {
+                    return;
+                }
+                InventorySnapshot snapshot = captureSnapshot(member);
+                plugin.getScheduler().runAtEntity(player, () -> applySnapshot(player, snapshot));
+            });
+            return;
+        }
+    }
+    
     private Collection<Player> getTargetPlayers(Player source) {
         if (plugin.getConfigManager().isTeamsEnabled()) {
-            return plugin.getTeamManager().getTeamMembers(source);
+            Collection<Player> members = plugin.getTeamManager().getTeamMembers(source);
+            if (!scope.isActive()) {
+                return members;
+            }
+            List<Player> scoped = new ArrayList<>(members.size());
+            for (Player member : members) {
+                if (member == source || scope.contains(source, member)) {
+                    scoped.add(member);
+                }
+            }
+            return scoped;
         } else {
-            List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+            List<Player> players = scope.isActive()
+                ? new ArrayList<>(scope.members(source))
+                : new ArrayList<>(Bukkit.getOnlinePlayers());
             players.removeIf(p -> bypassPlayers.contains(p.getUniqueId()));
             return players;
         }
@@ -467,6 +628,8 @@ public class InventorySyncManager {
         UUID diedUUID = diedPlayer.getUniqueId();
         
         for (Player target : targets) {
+            // Also for the dead player: the death save must not restore what just dropped
+            discardPending(target.getUniqueId());
             if (target.getUniqueId().equals(diedUUID) && !clearDiedPlayer) {
                 continue;
             }
@@ -487,8 +650,9 @@ public class InventorySyncManager {
                 return;
             }
             
-            channel.pipeline().addBefore("packet_handler", "multiinvsync_handler", 
-                new InventoryPacketHandler(player));
+            InventoryPacketHandler handler = new InventoryPacketHandler(player);
+            channel.pipeline().addBefore("packet_handler", "multiinvsync_handler", handler);
+            handlers.put(player.getUniqueId(), handler);
         } catch (Exception e) {
             plugin.getLogger().log(java.util.logging.Level.WARNING, 
                 String.format("Failed to inject player: %s", player.getName()), e);
@@ -496,6 +660,7 @@ public class InventorySyncManager {
     }
     
     public void uninjectPlayer(Player player) {
+        handlers.remove(player.getUniqueId());
         try {
             ServerPlayer nmsPlayer = ((CraftPlayer) player).getHandle();
             Channel channel = nmsPlayer.connection.connection.channel;
@@ -523,7 +688,16 @@ public class InventorySyncManager {
     
     private class InventoryPacketHandler extends ChannelDuplexHandler {
         private final Player player;
+        private final AtomicReference<InventorySnapshot> pending = new AtomicReference<>();
+        private volatile long lastInput = System.currentTimeMillis();
         private long lastPacketTime = 0;
+        // Event loop only
+        private ArrayDeque<Object> held;
+        private double lastX = Double.NaN;
+        private double lastY = Double.NaN;
+        private double lastZ = Double.NaN;
+        private float lastYaw = Float.NaN;
+        private float lastPitch = Float.NaN;
         
         public InventoryPacketHandler(Player player) {
             this.player = player;
@@ -531,6 +705,27 @@ public class InventorySyncManager {
         
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (held != null) {
+                held.add(msg);
+                return;
+            }
+            if (isInput(msg)) {
+                lastInput = System.currentTimeMillis();
+                InventorySnapshot snapshot = pending.getAndSet(null);
+                if (snapshot != null) {
+                    // Apply the deferred snapshot before the game sees this input
+                    held = new ArrayDeque<>();
+                    held.add(msg);
+                    plugin.getScheduler().runAtEntity(player, () -> {
+                        try {
+                            applySnapshot(player, snapshot);
+                        } finally {
+                            ctx.channel().eventLoop().execute(() -> release(ctx));
+                        }
+                    });
+                    return;
+                }
+            }
             if (isCreativeSetSlot(msg)) {
                 plugin.getScheduler().runAtEntityLater(player, () -> requestSync(player, 3L, true), 0L);
             } else if (isInventoryMutationPacket(msg)) {
@@ -543,6 +738,68 @@ public class InventorySyncManager {
             super.channelRead(ctx, msg);
         }
         
+        private void release(ChannelHandlerContext ctx) {
+            ArrayDeque<Object> queued = held;
+            held = null;
+            if (queued == null) {
+                return;
+            }
+            for (Object msg : queued) {
+                try {
+                    // May start holding again if another snapshot was deferred meanwhile
+                    channelRead(ctx, msg);
+                } catch (Exception e) {
+                    ctx.fireExceptionCaught(e);
+                }
+            }
+        }
+        
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            ArrayDeque<Object> queued = held;
+            held = null;
+            if (queued != null) {
+                for (Object msg : queued) {
+                    ctx.fireChannelRead(msg);
+                }
+            }
+        }
+        
+        /**
+         * Anything the player does counts as input. Movement packets only count when the
+         * position or view changed, since clients resend them periodically while standing still.
+         */
+        private boolean isInput(Object msg) {
+            if (msg instanceof ServerboundMovePlayerPacket move) {
+                double x = move.getX(lastX);
+                double y = move.getY(lastY);
+                double z = move.getZ(lastZ);
+                float yaw = move.getYRot(lastYaw);
+                float pitch = move.getXRot(lastPitch);
+                boolean moved = x != lastX || y != lastY || z != lastZ || yaw != lastYaw || pitch != lastPitch;
+                lastX = x;
+                lastY = y;
+                lastZ = z;
+                lastYaw = yaw;
+                lastPitch = pitch;
+                return moved;
+            }
+            // Only packets the player sends by acting; acks, keep-alives and settings do not count
+            return msg instanceof ServerboundContainerClickPacket
+                || msg instanceof ServerboundUseItemPacket
+                || msg instanceof ServerboundUseItemOnPacket
+                || msg instanceof ServerboundPlayerActionPacket
+                || msg instanceof ServerboundPlayerCommandPacket
+                || msg instanceof ServerboundInteractPacket
+                || msg instanceof ServerboundSetCarriedItemPacket
+                || msg instanceof ServerboundSwingPacket
+                || msg instanceof ServerboundPickItemPacket
+                || msg instanceof ServerboundSetCreativeModeSlotPacket
+                || msg instanceof ServerboundChatPacket
+                || msg instanceof ServerboundChatCommandPacket
+                || msg instanceof ServerboundChatCommandSignedPacket;
+        }
+        
         @Override
         public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
             // IGNORE Server to Client updates which may be caused by our own sync
@@ -0,0 +1,272 @@
+package net.opmasterleo.multiinvsync.sync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
+
+/**
+ * Limits sync groups to players sharing a world, a group of worlds, or a radius.
+ *
+ * Every online player is indexed under a cell: their world (or world group) name, and in
+ * radius mode also a grid square the size of the radius. Join, quit, world change and moves
+ * that cross a square's edge update the index, so finding a player's scope-mates only reads
+ * their own cell (or the nine squares around them in radius mode).
+ *
+ * A player's inventory belongs to the scope it was last synced in. Moving to another world or
+ * world group hands them to {@link InventorySyncManager#onScopeChanged}, which takes over the
+ * new group's inventory. Crossing squares in radius mode keeps the player's own inventory,
+ * which then spreads to whoever is within the radius on the next change.
+ */
+public class SyncScope implements Listener {
+
+    public enum Mode {
+        GLOBAL,
+        WORLD,
+        WORLD_GROUP,
+        RADIUS
+    }
+
+    private final MultiInvSyncPlugin plugin;
+    private final Map<UUID, Cell> placements = new ConcurrentHashMap<>();
+    private final Map<Cell, Set<Player>> cells = new ConcurrentHashMap<>();
+    private volatile Mode mode = Mode.GLOBAL;
+    private volatile int radius;
+    private volatile Map<String, String> worldGroups = Collections.emptyMap();
+    private boolean registered;
+
+    public SyncScope(MultiInvSyncPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Apply the configured rules and re-index everyone online.
+     */
+    public void configure() {
+        Mode configured;
+        try {
+            configured = Mode.valueOf(plugin.getConfigManager().getSyncScope().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown sync scope '" + plugin.getConfigManager().getSyncScope() + "', using global");
+            configured = Mode.GLOBAL;
+        }
+        mode = configured;
+        radius = Math.max(1, plugin.getConfigManager().getSyncScopeRadius());
+        worldGroups = plugin.getConfigManager().getSyncWorldGroups();
+
+        placements.clear();
+        cells.clear();
+        if (configured == Mode.GLOBAL) {
+            return;
+        }
+        if (!registered) {
+            plugin.getServer().getPluginManager().registerEvents(this, plugin);
+            registered = true;
+        }
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            place(player, player.getLocation());
+        }
+    }
+
+    public void shutdown() {
+        HandlerList.unregisterAll(this);
+        registered = false;
+        placements.clear();
+        cells.clear();
+    }
+
+    public boolean isActive() {
+        return mode != Mode.GLOBAL;
+    }
+
+    /**
+     * Online players in the source's scope, including the source.
+     */
+    public Collection<Player> members(Player source) {
+        Cell cell = placements.get(source.getUniqueId());
+        if (cell == null) {
+            return Collections.singletonList(source);
+        }
+        if (mode != Mode.RADIUS) {
+            Set<Player> members = cells.get(cell);
+            return members != null ? new ArrayList<>(members) : Collections.singletonList(source);
+        }
+
+        List<Player> nearby = new ArrayList<>();
+        Location origin = source.getLocation();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                Set<Player> members = cells.get(new Cell(cell.scope, cell.x + dx, cell.z + dz));
+                if (members == null) {
+                    continue;
+                }
+                for (Player player : members) {
+                    if (player == source || withinRadius(origin, player)) {
+                        nearby.add(player);
+                    }
+                }
+            }
+        }
+        return nearby;
+    }
+
+    /**
+     * World or world group the player is indexed under, null when scoping is off or they are not placed.
+     */
+    public String scopeOf(Player player) {
+        Cell cell = placements.get(player.getUniqueId());
+        return cell != null ? cell.scope : null;
+    }
+
+    /**
+     * Whether the target shares the source's scope.
+     */
+    public boolean contains(Player source, Player target) {
+        Cell sourceCell = placements.get(source.getUniqueId());
+        Cell targetCell = placements.get(target.getUniqueId());
+        if (sourceCell == null || targetCell == null || !sourceCell.scope.equals(targetCell.scope)) {
+            return false;
+        }
+        return mode != Mode.RADIUS || withinRadius(source.getLocation(), target);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        place(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        place(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        if (mode == Mode.RADIUS && event.getTo() != null) {
+            place(event.getPlayer(), event.getTo());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (mode != Mode.RADIUS || event.getTo() == null) {
+            return;
+        }
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        // Cheap exit for the common case of moving within one block
+        if (from.getBlockX() == to.getBlockX() && from.getBlockZ() == to.getBlockZ()) {
+            return;
+        }
+        Cell current = placements.get(event.getPlayer().getUniqueId());
+        if (current == null || current.x != Math.floorDiv(to.getBlockX(), radius)
+                || current.z != Math.floorDiv(to.getBlockZ(), radius)) {
+            place(event.getPlayer(), to);
+        }
+    }
+
+    private void place(Player player, Location location) {
+        if (mode == Mode.GLOBAL || location.getWorld() == null) {
+            return;
+        }
+        String world = location.getWorld().getName();
+        Cell cell;
+        if (mode == Mode.RADIUS) {
+            cell = new Cell(world, Math.floorDiv(location.getBlockX(), radius), Math.floorDiv(location.getBlockZ(), radius));
+        } else if (mode == Mode.WORLD_GROUP) {
+            cell = new Cell(worldGroups.getOrDefault(world, world), 0, 0);
+        } else {
+            cell = new Cell(world, 0, 0);
+        }
+
+        Cell previous = placements.put(player.getUniqueId(), cell);
+        if (cell.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            leave(previous, player);
+        }
+        cells.compute(cell, (key, members) -> {
+            Set<Player> updated = members != null ? members : ConcurrentHashMap.newKeySet();
+            updated.add(player);
+            return updated;
+        });
+        if (previous != null && !previous.scope.equals(cell.scope) && plugin.getSyncManager() != null) {
+            plugin.getSyncManager().onScopeChanged(player);
+        }
+    }
+
+    private void remove(Player player) {
+        Cell previous = placements.remove(player.getUniqueId());
+        if (previous != null) {
+            leave(previous, player);
+        }
+    }
+
+    private void leave(Cell cell, Player player) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            members.remove(player);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private boolean withinRadius(Location origin, Player target) {
+        Location location = target.getLocation();
+        if (!Objects.equals(origin.getWorld(), location.getWorld())) {
+            return false;
+        }
+        double dx = origin.getX() - location.getX();
+        double dz = origin.getZ() - location.getZ();
+        return dx * dx + dz * dz <= (double) radius * radius;
+    }
+
+    private static final class Cell {
+        final String scope;
+        final int x;
+        final int z;
+
+        Cell(String scope, int x, int z) {
+            this.scope = scope;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cell other)) return false;
+            return x == other.x && z == other.z && scope.equals(other.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * scope.hashCode() + x) + z;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package net.opmasterleo.multiinvsync.team;
 
 import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
 import net.opmasterleo.multiinvsync.team.providers.BetterTeamsProvider;
+import net.opmasterleo.multiinvsync.team.providers.ScoreboardTeamProvider;
 import org.bukkit.entity.Player;
 
 import java.util.*;
@@ -17,9 +18,14 @@ public class TeamManager {
     }
     
     public void initialize() {
+        if (activeProvider != null) {
+            activeProvider.disable();
+            activeProvider = null;
+        }
         availableProviders.clear();
         
         availableProviders.add(new BetterTeamsProvider());
+        availableProviders.add(new ScoreboardTeamProvider());
         
         if (!plugin.getConfigManager().isTeamsEnabled()) {
             plugin.getLogger().info("Team mode disabled - using global inventory sync");
@@ -31,16 +37,18 @@ public class TeamManager {
         
         if ("auto".equalsIgnoreCase(configuredPlugin)) {
             for (TeamProvider provider : availableProviders) {
-                if (provider.isAvailable()) {
+                if (provider.isAvailable() && provider.isInUse()) {
                     activeProvider = provider;
+                    provider.enable(plugin);
                     plugin.getLogger().info("Auto-detected team plugin: " + provider.getName());
                     return;
                 }
             }
         } else {
             for (TeamProvider provider : availableProviders) {
-                if (provider.getName().equalsIgnoreCase(configuredPlugin) && provider.isAvailable()) {
+                if (matches(provider, configuredPlugin) && provider.isAvailable()) {
                     activeProvider = provider;
+                    provider.enable(plugin);
                     plugin.getLogger().info("Using configured team plugin: " + provider.getName());
                     return;
                 }
@@ -56,6 +64,13 @@ public class TeamManager {
         }
     }
     
+    private boolean matches(TeamProvider provider, String configured) {
+        if (provider.getName().equalsIgnoreCase(configured)) {
+            return true;
+        }
+        return provider instanceof ScoreboardTeamProvider && "vanilla".equalsIgnoreCase(configured);
+    }
+    
     public boolean isTeamModeEnabled() {
         return activeProvider != null && plugin.getConfigManager().isTeamsEnabled();
     }
@@ -68,15 +83,11 @@ public class TeamManager {
             return Collections.emptyList();
         }
         
-        if (!activeProvider.isInTeam(player)) {
-            return Collections.singletonList(player);
-        }
-        
         return activeProvider.getTeamMembers(player);
     }
     
     public UUID getTeamId(Player player) {
-        if (activeProvider == null || !activeProvider.isInTeam(player)) {
+        if (activeProvider == null) {
             return null;
         }
         return activeProvider.getTeamId(player);
@@ -87,10 +98,6 @@ public class TeamManager {
             return plugin.getConfigManager().isFallbackToGlobal();
         }
         
-        if (!activeProvider.isInTeam(player1) || !activeProvider.isInTeam(player2)) {
-            return false;
-        }
-        
         UUID team1 = activeProvider.getTeamId(player1);
         UUID team2 = activeProvider.getTeamId(player2);
         
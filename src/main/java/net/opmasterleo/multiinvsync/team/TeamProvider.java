@@ -3,6 +3,7 @@ package net.opmasterleo.multiinvsync.team;
 import java.util.Collection;
 import java.util.UUID;
 
+import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
 import org.bukkit.entity.Player;
 
 public interface TeamProvider {
@@ -16,4 +17,20 @@ public interface TeamProvider {
     Collection<Player> getTeamMembers(Player player);
     
     boolean isAvailable();
+    
+    /**
+     * Whether 'auto' should pick this provider. Defaults to {@link #isAvailable()}.
+     */
+    default boolean isInUse() {
+        return isAvailable();
+    }
+    
+    /**
+     * Called when the provider becomes active, e.g. to register cache invalidation listeners.
+     */
+    default void enable(MultiInvSyncPlugin plugin) {
+    }
+    
+    default void disable() {
+    }
 }
@@ -1,43 +1,154 @@
 package net.opmasterleo.multiinvsync.team.providers;
 
 import com.booksaw.betterTeams.Team;
+import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
 import net.opmasterleo.multiinvsync.team.TeamProvider;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.EventExecutor;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Team resolution through BetterTeams.
+ *
+ * Each player's team (ID and online members) is resolved once and cached. Team membership
+ * events from BetterTeams drop the whole cache; a player joining or leaving the server drops
+ * that player's entry and the member lists, since those only hold online players.
+ * BetterTeams fires its membership events before applying the change, and a lookup from
+ * another thread in between would cache the old team, so the cache is dropped again on the
+ * next tick.
+ */
+public class BetterTeamsProvider implements TeamProvider, Listener {
+
+    private static final String[] MEMBERSHIP_EVENTS = {
+        "com.booksaw.betterTeams.customEvents.PlayerJoinTeamEvent",
+        "com.booksaw.betterTeams.customEvents.PlayerLeaveTeamEvent",
+        "com.booksaw.betterTeams.customEvents.DisbandTeamEvent"
+    };
+    private static final CachedTeam NO_TEAM = new CachedTeam(null, new Player[0]);
+
+    private final Map<UUID, CachedTeam> byPlayer = new ConcurrentHashMap<>();
+    private final Map<UUID, CachedTeam> byTeam = new ConcurrentHashMap<>();
+    private Method getTeamByPlayer;
+    private Method getTeamByUuid;
+    private boolean lookupResolved;
 
-public class BetterTeamsProvider implements TeamProvider {
-    
     @Override
     public String getName() {
         return "BetterTeams";
     }
-    
+
     @Override
-    public boolean isInTeam(Player player) {
-        if (!isAvailable()) {
-            return false;
+    public void enable(MultiInvSyncPlugin plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        EventExecutor invalidate = (listener, event) -> {
+            invalidateAll();
+            plugin.getScheduler().runMainLater(this::invalidateAll, 1L);
+        };
+        int registered = 0;
+        for (String eventName : MEMBERSHIP_EVENTS) {
+            try {
+                Class<? extends Event> eventClass = Class.forName(eventName).asSubclass(Event.class);
+                plugin.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR, invalidate, plugin, true);
+                registered++;
+            } catch (Exception ignored) {
+            }
+        }
+        if (registered < MEMBERSHIP_EVENTS.length) {
+            plugin.getLogger().warning("Some BetterTeams membership events were not found; team changes may apply late");
         }
-        return getTeam(player) != null;
     }
-    
+
+    @Override
+    public void disable() {
+        HandlerList.unregisterAll(this);
+        invalidateAll();
+    }
+
+    @Override
+    public boolean isInTeam(Player player) {
+        return resolve(player).teamId != null;
+    }
+
     @Override
     public UUID getTeamId(Player player) {
-        if (!isAvailable() || !isInTeam(player)) {
-            return null;
+        return resolve(player).teamId;
+    }
+
+    @Override
+    public Collection<Player> getTeamMembers(Player player) {
+        CachedTeam cached = resolve(player);
+        if (cached.members.length == 0) {
+            return Collections.singletonList(player);
         }
-        
-        Team team = getTeam(player);
-        if (team == null) {
-            return null;
+        return Collections.unmodifiableList(Arrays.asList(cached.members));
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            Class.forName("com.booksaw.betterTeams.Team");
+            return Bukkit.getPluginManager().getPlugin("BetterTeams") != null;
+        } catch (ClassNotFoundException e) {
+            return false;
         }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer());
+    }
 
+    private void invalidate(Player player) {
+        byPlayer.remove(player.getUniqueId());
+        // Member lists only hold online players, so every team's list may have changed
+        byTeam.clear();
+        byPlayer.values().removeIf(cached -> cached != NO_TEAM);
+    }
+
+    private void invalidateAll() {
+        byPlayer.clear();
+        byTeam.clear();
+    }
+
+    private CachedTeam resolve(Player player) {
+        CachedTeam cached = byPlayer.get(player.getUniqueId());
+        if (cached != null) {
+            return cached;
+        }
+        Team team = isAvailable() ? getTeam(player) : null;
+        UUID teamId = team != null ? computeTeamId(team) : null;
+        if (teamId == null) {
+            cached = NO_TEAM;
+        } else {
+            cached = byTeam.computeIfAbsent(teamId, id -> new CachedTeam(id, resolveMembers(team).toArray(new Player[0])));
+        }
+        byPlayer.put(player.getUniqueId(), cached);
+        return cached;
+    }
+
+    private UUID computeTeamId(Team team) {
         String id = invokeString(team, "getID");
         if (id == null) {
             id = invokeString(team, "getId");
@@ -58,55 +169,31 @@ public class BetterTeamsProvider implements TeamProvider {
 
         return null;
     }
-    
-    @Override
-    public Collection<Player> getTeamMembers(Player player) {
-        Collection<Player> members = new ArrayList<>();
-        
-        if (!isAvailable() || !isInTeam(player)) {
-            members.add(player);
-            return members;
-        }
-        
-        try {
-            Team team = getTeam(player);
-            if (team != null) {
-                Set<Player> resolved = resolveMembers(team);
-                if (!resolved.isEmpty()) {
-                    members.addAll(resolved);
-                }
+
+    private Team getTeam(Player player) {
+        if (!lookupResolved) {
+            try {
+                getTeamByPlayer = Team.class.getMethod("getTeam", Player.class);
+            } catch (NoSuchMethodException ignored) {
             }
-        } catch (Exception e) {
-            members.add(player);
-        }
-        
-        if (members.isEmpty()) {
-            members.add(player);
-        }
-        
-        return members;
-    }
-    
-    @Override
-    public boolean isAvailable() {
-        try {
-            Class.forName("com.booksaw.betterTeams.Team");
-            return Bukkit.getPluginManager().getPlugin("BetterTeams") != null;
-        } catch (ClassNotFoundException e) {
-            return false;
+            try {
+                getTeamByUuid = Team.class.getMethod("getTeam", UUID.class);
+            } catch (NoSuchMethodException ignored) {
+            }
+            lookupResolved = true;
         }
-    }
 
-    private Team getTeam(Player player) {
         try {
-            Method method = Team.class.getMethod("getTeam", Player.class);
-            return (Team) method.invoke(null, player);
+            if (getTeamByPlayer != null) {
+                return (Team) getTeamByPlayer.invoke(null, player);
+            }
         } catch (Exception ignored) {
         }
 
         try {
-            Method method = Team.class.getMethod("getTeam", UUID.class);
-            return (Team) method.invoke(null, player.getUniqueId());
+            if (getTeamByUuid != null) {
+                return (Team) getTeamByUuid.invoke(null, player.getUniqueId());
+            }
         } catch (Exception ignored) {
         }
         return null;
@@ -201,4 +288,14 @@ public class BetterTeamsProvider implements TeamProvider {
 
         return null;
     }
+
+    private static final class CachedTeam {
+        final UUID teamId;
+        final Player[] members;
+
+        CachedTeam(UUID teamId, Player[] members) {
+            this.teamId = teamId;
+            this.members = members;
+        }
+    }
 }
@@ -0,0 +1,201 @@
+package net.opmasterleo.multiinvsync.team.providers;
+
+import net.opmasterleo.multiinvsync.MultiInvSyncPlugin;
+import net.opmasterleo.multiinvsync.scheduler.TaskHandle;
+import net.opmasterleo.multiinvsync.team.TeamProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.ScoreboardManager;
+import org.bukkit.scoreboard.Team;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Team resolution through the teams of the server's main scoreboard (/team).
+ *
+ * An index maps every scoreboard entry to its team, and each team holds an array of its
+ * online members, so lookups never touch the scoreboard or the online player list.
+ * Joins and quits only rebuild the member array of the player's own team. The scoreboard
+ * fires no events for /team changes, so teams are compared against the index once a second
+ * and only entries that actually moved are updated. Servers without a main scoreboard
+ * (Folia) report the provider as unavailable.
+ */
+public class ScoreboardTeamProvider implements TeamProvider, Listener {
+
+    private static final long REFRESH_TICKS = 20L;
+
+    private final Map<String, IndexedTeam> byEntry = new ConcurrentHashMap<>();
+    private final Map<String, IndexedTeam> byName = new ConcurrentHashMap<>();
+    private MultiInvSyncPlugin plugin;
+    private TaskHandle refreshTask;
+
+    @Override
+    public String getName() {
+        return "Scoreboard";
+    }
+
+    @Override
+    public void enable(MultiInvSyncPlugin plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        refreshTask = plugin.getScheduler().runMainTimer(this::refresh, 0L, REFRESH_TICKS);
+    }
+
+    @Override
+    public void disable() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        HandlerList.unregisterAll(this);
+        byEntry.clear();
+        byName.clear();
+    }
+
+    @Override
+    public boolean isInTeam(Player player) {
+        return byEntry.containsKey(player.getName());
+    }
+
+    @Override
+    public UUID getTeamId(Player player) {
+        IndexedTeam team = byEntry.get(player.getName());
+        return team != null ? team.id : null;
+    }
+
+    @Override
+    public Collection<Player> getTeamMembers(Player player) {
+        IndexedTeam team = byEntry.get(player.getName());
+        if (team == null || team.online.length == 0) {
+            return Collections.singletonList(player);
+        }
+        return Collections.unmodifiableList(Arrays.asList(team.online));
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return mainScoreboard() != null;
+    }
+
+    /**
+     * Every server has a scoreboard, so auto-detection only picks it once teams exist.
+     */
+    @Override
+    public boolean isInUse() {
+        Scoreboard scoreboard = mainScoreboard();
+        return scoreboard != null && !scoreboard.getTeams().isEmpty();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        IndexedTeam team = byEntry.get(event.getPlayer().getName());
+        if (team != null) {
+            team.rebuildOnline(null);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        IndexedTeam team = byEntry.get(event.getPlayer().getName());
+        if (team != null) {
+            team.rebuildOnline(event.getPlayer());
+        }
+    }
+
+    private void refresh() {
+        try {
+            Scoreboard scoreboard = mainScoreboard();
+            if (scoreboard != null) {
+                update(scoreboard);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to refresh scoreboard teams: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The main scoreboard, or null where there is none; Folia rejects the call outright.
+     */
+    private static Scoreboard mainScoreboard() {
+        try {
+            ScoreboardManager manager = Bukkit.getScoreboardManager();
+            return manager != null ? manager.getMainScoreboard() : null;
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private void update(Scoreboard scoreboard) {
+        Set<String> seen = new HashSet<>();
+        for (Team team : scoreboard.getTeams()) {
+            String name = team.getName();
+            seen.add(name);
+            IndexedTeam indexed = byName.computeIfAbsent(name, IndexedTeam::new);
+            Set<String> entries = team.getEntries();
+            if (entries.equals(indexed.entries)) {
+                continue;
+            }
+            for (String entry : indexed.entries) {
+                if (!entries.contains(entry)) {
+                    // The entry may already be indexed under the team it moved to
+                    byEntry.remove(entry, indexed);
+                }
+            }
+            indexed.entries = new HashSet<>(entries);
+            for (String entry : entries) {
+                byEntry.put(entry, indexed);
+            }
+            indexed.rebuildOnline(null);
+        }
+
+        byName.values().removeIf(indexed -> {
+            if (seen.contains(indexed.name)) {
+                return false;
+            }
+            for (String entry : indexed.entries) {
+                byEntry.remove(entry, indexed);
+            }
+            return true;
+        });
+    }
+
+    private static final class IndexedTeam {
+        final String name;
+        final UUID id;
+        volatile Set<String> entries = Collections.emptySet();
+        volatile Player[] online = new Player[0];
+
+        IndexedTeam(String name) {
+            this.name = name;
+            this.id = UUID.nameUUIDFromBytes(("scoreboard:" + name).getBytes(StandardCharsets.UTF_8));
+        }
+
+        void rebuildOnline(Player leaving) {
+            List<Player> members = new ArrayList<>();
+            for (String entry : entries) {
+                Player player = Bukkit.getPlayerExact(entry);
+                if (player != null && player != leaving) {
+                    members.add(player);
+                }
+            }
+            online = members.toArray(new Player[0]);
+        }
+    }
+}
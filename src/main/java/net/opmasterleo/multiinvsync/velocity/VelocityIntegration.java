@@ -33,9 +33,10 @@ import com.google.common.io.ByteStreams;
  * 
  * SAFETY PROTOCOL:
  * 1. Player joins Server A → Load from Redis, mark as "owned" by Server A
- * 2. Player switches to Server B → Server A saves to Redis, sends notification
- * 3. Server B receives notification → Loads from Redis, marks as "owned" by Server B
- * 4. Velocity ensures player disconnects from Server A before connecting to Server B
+ * 2. Player switches to Server B → Server B asks for a handoff during pre-login
+ * 3. Server A pushes the final snapshot to Server B on quit, then saves to Redis
+ * 4. Server B applies the handoff (or loads from Redis if none arrives), marks as "owned" by Server B
+ * 5. Velocity ensures player disconnects from Server A before connecting to Server B
  */
 public class VelocityIntegration implements PluginMessageListener {
     
@@ -0,0 +1,218 @@
+package net.opmasterleo.multiinvsync.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryHub;
+import net.opmasterleo.multiinvsync.storage.memory.MemoryInventoryStore;
+
+/**
+ * Writes journaled while the store is unreachable survive a restart and reach the store afterwards.
+ */
+class JournaledInventoryStoreTest {
+
+    private static final Logger LOGGER = Logger.getLogger("JournaledInventoryStoreTest");
+
+    @TempDir
+    File directory;
+
+    private MemoryHub hub;
+    private FlakyStore store;
+
+    @BeforeAll
+    static void bootstrap() {
+        // Replay decodes the journaled snapshot, which fills empty slots with ItemStack.EMPTY
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void createStore() {
+        hub = new MemoryHub();
+        store = new FlakyStore(new MemoryInventoryStore(hub, LOGGER));
+    }
+
+    @Test
+    void acknowledgedWritesAreNotRecovered() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        JournaledInventoryStore journaled = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+        journaled.saveInventory(playerId, snapshot(4));
+        journaled.saveEconomy(playerId, 10.0);
+        journaled.shutdown();
+
+        JournaledInventoryStore reopened = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+
+        assertEquals(0, reopened.getPendingCount());
+        reopened.shutdown();
+    }
+
+    @Test
+    void unacknowledgedWritesAreReplayedAfterRestart() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        store.reachable = false;
+        JournaledInventoryStore journaled = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+        assertEquals(-1L, journaled.saveInventory(playerId, snapshot(4)));
+        journaled.saveEconomy(playerId, 10.0);
+        journaled.shutdown();
+
+        JournaledInventoryStore reopened = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+        assertEquals(2, reopened.getPendingCount());
+        // Still unreachable: loads are served from the journal
+        InventoryData pending = reopened.loadInventory(playerId);
+        assertNotNull(pending);
+        assertEquals(4, pending.xpLevel);
+        assertEquals(10.0, reopened.loadEconomy(playerId));
+
+        store.reachable = true;
+        InventoryData replayed = reopened.loadInventory(playerId);
+        reopened.loadEconomy(playerId);
+
+        assertNotNull(replayed);
+        assertEquals(4, replayed.xpLevel);
+        assertEquals(0, reopened.getPendingCount());
+        MemoryInventoryStore other = new MemoryInventoryStore(hub, LOGGER);
+        assertEquals(4, other.loadInventory(playerId).xpLevel);
+        assertEquals(10.0, other.loadEconomy(playerId));
+        reopened.shutdown();
+    }
+
+    @Test
+    void replayKeepsNewerSnapshotFromAnotherServer() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        store.reachable = false;
+        JournaledInventoryStore journaled = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+        journaled.saveInventory(playerId, snapshot(4));
+        journaled.shutdown();
+
+        store.reachable = true;
+        new MemoryInventoryStore(hub, LOGGER).saveInventory(playerId, snapshot(9));
+        JournaledInventoryStore reopened = new JournaledInventoryStore(store, directory, LOGGER, 100L);
+
+        assertEquals(9, reopened.loadInventory(playerId).xpLevel);
+        assertEquals(0, reopened.getPendingCount());
+        reopened.shutdown();
+    }
+
+    @Test
+    void tornTailIsDiscarded() throws IOException {
+        UUID playerId = UUID.randomUUID();
+        WriteAheadJournal journal = new WriteAheadJournal(directory, LOGGER);
+        journal.open();
+        journal.appendEconomy(playerId, 1L, 1.0);
+        journal.appendEconomy(playerId, 2L, 2.0);
+        journal.close();
+        Path file = directory.toPath().resolve("writes.journal");
+        long intact = Files.size(file);
+        // Half a header, as left behind by a crash in the middle of an append
+        Files.write(file, new byte[] {0, 0, 0, 42}, StandardOpenOption.APPEND);
+
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, LOGGER);
+        List<WriteAheadJournal.Entry> entries = reopened.open();
+
+        assertEquals(2, entries.size());
+        assertEquals(2.0, entries.get(1).balance);
+        assertEquals(intact, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void checkpointKeepsOnlyPendingEntries() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        WriteAheadJournal journal = new WriteAheadJournal(directory, LOGGER);
+        journal.open();
+        WriteAheadJournal.Entry acked = journal.appendEconomy(first, 1L, 1.0);
+        WriteAheadJournal.Entry pending = journal.appendEconomy(second, 2L, 2.0);
+        journal.appendAck(first, acked.sequence);
+        journal.checkpoint(List.of(pending));
+        journal.close();
+
+        WriteAheadJournal reopened = new WriteAheadJournal(directory, LOGGER);
+        List<WriteAheadJournal.Entry> entries = reopened.open();
+
+        assertEquals(1, entries.size());
+        assertEquals(second, entries.get(0).playerId);
+        assertEquals(pending.sequence, entries.get(0).sequence);
+        reopened.close();
+    }
+
+    private static InventoryData snapshot(int xpLevel) {
+        InventoryData data = new InventoryData();
+        data.xpLevel = xpLevel;
+        data.xpTotal = xpLevel * 10;
+        return data;
+    }
+
+    /**
+     * Store that rejects writes and reads while {@link #reachable} is false, like Redis during an outage.
+     */
+    private static class FlakyStore implements InventoryStore {
+        private final InventoryStore delegate;
+        volatile boolean reachable = true;
+
+        FlakyStore(InventoryStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long saveInventory(UUID playerId, InventoryData data) {
+            return reachable ? delegate.saveInventory(playerId, data) : -1L;
+        }
+
+        @Override
+        public InventoryData loadInventory(UUID playerId) {
+            return reachable ? delegate.loadInventory(playerId) : null;
+        }
+
+        @Override
+        public InventoryData decodeInventory(String payload) {
+            return delegate.decodeInventory(payload);
+        }
+
+        @Override
+        public boolean saveEconomy(UUID playerId, double balance) {
+            return reachable && delegate.saveEconomy(playerId, balance);
+        }
+
+        @Override
+        public Double loadEconomy(UUID playerId) {
+            return reachable ? delegate.loadEconomy(playerId) : null;
+        }
+
+        @Override
+        public void registerPlayer(UUID playerId, String serverId) {
+            delegate.registerPlayer(playerId, serverId);
+        }
+
+        @Override
+        public void unregisterPlayer(UUID playerId, String serverId) {
+            delegate.unregisterPlayer(playerId, serverId);
+        }
+
+        @Override
+        public boolean isPlayerActiveElsewhere(UUID playerId, String currentServerId) {
+            return delegate.isPlayerActiveElsewhere(playerId, currentServerId);
+        }
+
+        @Override
+        public void deletePlayer(UUID playerId) {
+            delegate.deletePlayer(playerId);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package net.opmasterleo.multiinvsync.storage.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.opmasterleo.multiinvsync.storage.InventoryData;
+import net.opmasterleo.multiinvsync.storage.MessageType;
+import net.opmasterleo.multiinvsync.storage.SyncMessage;
+
+/**
+ * Two simulated servers sharing one {@link MemoryHub}, the way two servers share one Redis.
+ */
+class MemoryBackendTest {
+
+    private static final Logger LOGGER = Logger.getLogger("MemoryBackendTest");
+
+    private MemoryHub hub;
+    private MemoryInventoryStore storeA;
+    private MemoryInventoryStore storeB;
+    private MemoryMessageBus busA;
+    private MemoryMessageBus busB;
+    private final BlockingQueue<SyncMessage> receivedA = new LinkedBlockingQueue<>();
+    private final BlockingQueue<SyncMessage> receivedB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void bootstrap() {
+        // Decoding a snapshot fills empty slots with ItemStack.EMPTY, which needs the registries
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void attach() {
+        hub = new MemoryHub();
+        storeA = new MemoryInventoryStore(hub, LOGGER);
+        storeB = new MemoryInventoryStore(hub, LOGGER);
+        busA = new MemoryMessageBus(hub, LOGGER, "a");
+        busB = new MemoryMessageBus(hub, LOGGER, "b");
+        busA.start(receivedA::add);
+        busB.start(receivedB::add);
+    }
+
+    @AfterEach
+    void detach() {
+        busA.shutdown();
+        busB.shutdown();
+    }
+
+    @Test
+    void savesGetIncreasingVersions() {
+        UUID playerId = UUID.randomUUID();
+
+        assertEquals(1L, storeA.saveInventory(playerId, snapshot(5)));
+        assertEquals(2L, storeB.saveInventory(playerId, snapshot(7)));
+        assertEquals(3L, storeA.saveInventory(playerId, snapshot(9)));
+    }
+
+    @Test
+    void loadReturnsLatestSaveFromAnyServer() {
+        UUID playerId = UUID.randomUUID();
+        storeA.saveInventory(playerId, snapshot(5));
+        storeB.saveInventory(playerId, snapshot(7));
+
+        InventoryData loaded = storeA.loadInventory(playerId);
+
+        assertNotNull(loaded);
+        assertEquals(2L, loaded.version);
+        assertEquals(7, loaded.xpLevel);
+    }
+
+    @Test
+    void deleteRemovesSnapshotAndBalance() {
+        UUID playerId = UUID.randomUUID();
+        storeA.saveInventory(playerId, snapshot(5));
+        storeA.saveEconomy(playerId, 12.5);
+
+        storeB.deletePlayer(playerId);
+
+        assertNull(storeA.loadInventory(playerId));
+        assertNull(storeA.loadEconomy(playerId));
+    }
+
+    @Test
+    void presenceIsOnlySeenFromOtherServers() {
+        UUID playerId = UUID.randomUUID();
+        storeA.registerPlayer(playerId, "a");
+
+        assertTrue(storeB.isPlayerActiveElsewhere(playerId, "b"));
+        assertFalse(storeA.isPlayerActiveElsewhere(playerId, "a"));
+
+        storeA.unregisterPlayer(playerId, "a");
+
+        assertFalse(storeB.isPlayerActiveElsewhere(playerId, "b"));
+    }
+
+    @Test
+    void targetedMessageReachesOnlyTarget() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+
+        busA.publishInventoryUpdate(playerId, "b", 4L);
+
+        SyncMessage message = receivedB.poll(2, TimeUnit.SECONDS);
+        assertNotNull(message);
+        assertEquals(MessageType.INVENTORY_UPDATE, message.type);
+        assertEquals(playerId, message.playerId);
+        assertEquals("a", message.sourceServer);
+        assertEquals(4L, message.version);
+        // Delivery is in order on one thread, so an echo would have arrived by now
+        assertTrue(receivedA.isEmpty());
+    }
+
+    @Test
+    void teamMessageReachesOnlySubscribers() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        String teamId = UUID.randomUUID().toString();
+        busB.subscribeToTeam(teamId);
+
+        busA.broadcastEconomyUpdate(playerId, 50.0, teamId, 2L);
+        busB.broadcastPlayerDeath(playerId, teamId);
+
+        SyncMessage economy = receivedB.poll(2, TimeUnit.SECONDS);
+        assertNotNull(economy);
+        assertEquals(MessageType.ECONOMY_UPDATE, economy.type);
+        assertEquals(50.0, economy.balance);
+        assertEquals(teamId, economy.teamId);
+        // Server a is not subscribed to the team and never hears b's broadcast
+        assertNull(receivedA.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void handoffCarriesPayloadToTarget() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        InventoryData data = snapshot(3);
+        long version = storeA.saveInventory(playerId, data);
+
+        busA.sendHandoff(playerId, "b", version, data.payload, 8.0);
+
+        SyncMessage handoff = receivedB.poll(2, TimeUnit.SECONDS);
+        assertNotNull(handoff);
+        assertEquals(MessageType.HANDOFF, handoff.type);
+        InventoryData decoded = storeB.decodeInventory(handoff.payload);
+        assertEquals(version, decoded.version);
+        assertEquals(3, decoded.xpLevel);
+        assertEquals(8.0, handoff.balance);
+    }
+
+    @Test
+    void nothingIsDeliveredAfterShutdown() throws InterruptedException {
+        busB.shutdown();
+
+        busA.publishInventoryUpdate(UUID.randomUUID(), "b", 1L);
+
+        assertNull(receivedB.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private static InventoryData snapshot(int xpLevel) {
+        InventoryData data = new InventoryData();
+        data.xpLevel = xpLevel;
+        data.xpTotal = xpLevel * 10;
+        return data;
+    }
+}